@@ -0,0 +1,187 @@
+package countMeetings;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Counts the meetings in a lot of csv files at once (eg. one file per team)
+ * 
+ * Works with any CountMeetings implementation (CountMeetingsMVP or CountMeetingsFull).
+ *   The files are counted concurrently, but never more than maxParallelism at a time.
+ * 
+ * Files are counted on virtual threads when the JVM has them (Java 21+). Otherwise
+ *   a fixed pool of maxParallelism threads is used.
+ * 
+ * A file that can't be read, whose count throws, or whose count is -1 (the
+ *   CountMeetings couldn't read it) goes in BatchResult.getFailures instead of
+ *   the counts, so it never adds to the total.
+ * 
+ * @author Alex Lay
+ */
+public class BatchCountMeetings {
+	private final CountMeetings countMeetings;
+	private final int maxParallelism;
+	
+	public BatchCountMeetings(CountMeetings countMeetings) {
+		this(countMeetings, Runtime.getRuntime().availableProcessors());
+	}
+	
+	public BatchCountMeetings(CountMeetings countMeetings, int maxParallelism) {
+		if(maxParallelism < 1) {
+			throw new IllegalArgumentException("maxParallelism must be at least 1");
+		}
+		this.countMeetings = countMeetings;
+		this.maxParallelism = maxParallelism;
+	}
+	
+	/**
+	 * Counts the meetings in every csv file (*.csv or *.csv.gz) in a directory
+	 * 
+	 * @param directoryPath = the directory containing the csv files
+	 * @return the count for every file and the grand total
+	 */
+	public BatchResult countMeetingsInDirectory(String directoryPath) {
+		List<String> csvPaths = new ArrayList<String>();
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directoryPath), "*.{csv,csv.gz}")) {
+			for(Path file : files) {
+				csvPaths.add(file.toString());
+			}
+		}
+		catch(IOException e) {
+			System.out.print("Couldn't read directory.");
+			e.printStackTrace();
+		}
+		Collections.sort(csvPaths);
+		return countMeetings(csvPaths);
+	}
+	
+	/**
+	 * Counts the meetings in every csv file
+	 * 
+	 * O(N/P) where N is the total size of the files and P = min(maxParallelism, cores)
+	 * 
+	 * @param csvPaths = the paths of the csv files
+	 * @return the count for every file (in the same order as csvPaths), the grand total
+	 *   and the files that couldn't be counted
+	 */
+	public BatchResult countMeetings(List<String> csvPaths) {
+		Semaphore permits = new Semaphore(maxParallelism);
+		ExecutorService executor = newExecutor(maxParallelism);
+		Map<String, Future<Integer>> futures = new LinkedHashMap<String, Future<Integer>>();
+		try {
+			for(String csvPath : csvPaths) {
+				futures.put(csvPath, executor.submit(() -> {
+					permits.acquire();
+					try {
+						if(!Files.isReadable(Paths.get(csvPath))) {
+							throw new NoSuchFileException(csvPath, null, "Can't read file");
+						}
+						int count = countMeetings.countMeetings(csvPath);
+						if(count < 0) {
+							throw new IOException("Couldn't count " + csvPath);
+						}
+						return count;
+					}
+					finally {
+						permits.release();
+					}
+				}));
+			}
+			
+			BatchResult result = new BatchResult();
+			for(Map.Entry<String, Future<Integer>> future : futures.entrySet()) {
+				try {
+					result.add(future.getKey(), future.getValue().get());
+				}
+				catch(ExecutionException e) {
+					result.fail(future.getKey(), e.getCause());
+				}
+			}
+			return result;
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while counting meetings", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Uses Executors.newVirtualThreadPerTaskExecutor if this JVM has it
+	 *   (looked up by reflection since the project targets Java 11)
+	 * 
+	 * @param maxParallelism = the number of threads to use if there are no virtual threads
+	 * @return an executor to count the files on
+	 */
+	static ExecutorService newExecutor(int maxParallelism) {
+		try {
+			Method virtualExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtualExecutor.invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(maxParallelism);
+		}
+	}
+	
+	/**
+	 * The counts from a batch
+	 */
+	public static class BatchResult {
+		private final Map<String, Integer> counts;
+		private final Map<String, Throwable> failures;
+		private long total;
+		
+		public BatchResult() {
+			counts = new LinkedHashMap<String, Integer>();
+			failures = new LinkedHashMap<String, Throwable>();
+			total = 0;
+		}
+		
+		void add(String csvPath, int count) {
+			counts.put(csvPath, count);
+			total += count;
+		}
+		
+		void fail(String csvPath, Throwable cause) {
+			failures.put(csvPath, cause);
+		}
+		
+		/**
+		 * @return the number of meetings in each file
+		 */
+		public Map<String, Integer> getCounts() {
+			return Collections.unmodifiableMap(counts);
+		}
+		
+		/**
+		 * @return why each file that couldn't be counted failed (these files aren't in getCounts)
+		 */
+		public Map<String, Throwable> getFailures() {
+			return Collections.unmodifiableMap(failures);
+		}
+		
+		/**
+		 * @return the number of meetings in all of the files that were counted
+		 */
+		public long getTotal() {
+			return total;
+		}
+	}
+}
@@ -1,11 +1,19 @@
 package countMeetings;
 
+import java.io.IOException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
+import countMeetings.helpers.BinaryCalendar;
 import countMeetings.helpers.CSVReader;
+import countMeetings.helpers.CheckpointedIngest;
+import countMeetings.helpers.MeetingIndex;
 import countMeetings.helpers.MeetingInterval;
 import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.ParallelCSVReader;
+import countMeetings.helpers.PipelinedIngest;
 
 /**
  * This is the full version of CountMeetings. It accounts for...
@@ -19,31 +27,151 @@ import countMeetings.helpers.MeetingIntervalTree;
  *   
  * Since it is based off of a Red-Black tree, search, insert, and delete are all O(logN).
  * 
+ * The calendar is kept in a MeetingIndex. By default that's a MeetingIntervalTree,
+ *   but any index can be plugged in, eg.
+ *     new CountMeetingsFull(WeekdayPartitionedIndex::new)
+ * 
  * @author Alex Lay
  */
 public class CountMeetingsFull implements CountMeetings {
+	private final Supplier<MeetingIndex> indexFactory;
+	
+	public CountMeetingsFull() {
+		this(MeetingIntervalTree::new);
+	}
+	
+	/**
+	 * @param indexFactory = makes a new, empty index for every count
+	 */
+	public CountMeetingsFull(Supplier<MeetingIndex> indexFactory) {
+		this.indexFactory = indexFactory;
+	}
+	
 	public int countMeetings(String meetingsPath) {
 		CSVReader csvReader = new CSVReader();
 		List[] csvInfo = csvReader.readMeetingsFull(meetingsPath);
 		// csvInfo[0] = an ArrayList of meeting intervals
 		// csvInfo[1] = an ArrayList of vacation intervals
-		MeetingIntervalTree intervalTree = new MeetingIntervalTree();
+		MeetingIndex intervalTree = indexFactory.get();
+		insertMeetings(intervalTree, csvInfo[0]);
+		removeVacations(intervalTree, csvInfo[1]);
+		
+		return countMeetingsInTree(intervalTree);
+	}
+	
+	/**
+	 * Same as countMeetings, but the csv file is read on all of the cores at once
+	 *   with a ParallelCSVReader. Building the tree is still done on one thread.
+	 * 
+	 * @param meetingsPath = the path to the csv file
+	 * @return the number of meetings in the file
+	 */
+	public int countMeetingsParallel(String meetingsPath) {
+		ParallelCSVReader csvReader = new ParallelCSVReader();
+		List[] csvInfo = csvReader.readMeetingsFull(meetingsPath);
+		MeetingIndex intervalTree = indexFactory.get();
 		insertMeetings(intervalTree, csvInfo[0]);
 		removeVacations(intervalTree, csvInfo[1]);
 		
 		return countMeetingsInTree(intervalTree);
 	}
 	
+	/**
+	 * Same as countMeetings, but for a binary calendar (see BinaryCalendar.convert)
+	 * 
+	 * @param binaryPath = the path to the binary calendar
+	 * @return the number of meetings in the file
+	 */
+	public int countMeetingsBinary(String binaryPath) {
+		BinaryCalendar calendar = new BinaryCalendar();
+		List[] calendarInfo = calendar.readMeetingsFull(binaryPath);
+		MeetingIndex intervalTree = indexFactory.get();
+		insertMeetings(intervalTree, calendarInfo[0]);
+		removeVacations(intervalTree, calendarInfo[1]);
+		
+		return countMeetingsInTree(intervalTree);
+	}
+	
+	/**
+	 * Same as countMeetings, but for very large files. Progress is checkpointed
+	 *   next to the csv and bad rows are written to a side file instead of
+	 *   stopping the count (see CheckpointedIngest). If it does stop, running it
+	 *   again picks up from the last checkpoint.
+	 * 
+	 * @param meetingsPath = the path to the csv file
+	 * @return the number of meetings in the file, or -1 if it stopped early
+	 */
+	public int countMeetingsResumable(String meetingsPath) {
+		CheckpointedIngest ingest = new CheckpointedIngest(meetingsPath);
+		try {
+			CheckpointedIngest.FullState state = ingest.ingestFull();
+			removeVacations(state.getTree(), state.getVacations());
+			return countMeetingsInTree(state.getTree());
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+			return -1;
+		}
+	}
+	
+	/**
+	 * Same as countMeetings, but reading, parsing and inserting into the tree all
+	 *   happen at the same time on different threads (see PipelinedIngest). Use a
+	 *   PipelinedIngest directly to see how long each stage took.
+	 * 
+	 * @param meetingsPath = the path to the csv file
+	 * @return the number of meetings in the file, or -1 if it couldn't be read
+	 */
+	public int countMeetingsPipelined(String meetingsPath) {
+		PipelinedIngest ingest = new PipelinedIngest(meetingsPath);
+		MeetingIndex intervalTree = indexFactory.get();
+		try {
+			List<MeetingInterval> vacations = ingest.ingestFull(intervalTree);
+			removeVacations(intervalTree, vacations);
+			return countMeetingsInTree(intervalTree);
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+			return -1;
+		}
+	}
+	
 	/**
 	 * Counts all of the meetings in the tree
 	 * 
-	 * preorder; O(N)
+	 * O(1) (the tree keeps a count in every subtree and the partitioned
+	 *   index keeps one for each day of the week)
 	 * 
-	 * @param tree = the interval tree
+	 * @param tree = the interval tree (or any other index)
 	 * @return the total number of meetings in the tree
 	 */
-	public Integer countMeetingsInTree(MeetingIntervalTree tree) {
-		return tree.countMeetings(tree.getRoot());
+	public Integer countMeetingsInTree(MeetingIndex tree) {
+		return Math.toIntExact(tree.countMeetings());
+	}
+	
+	/**
+	 * Counts the meetings in the tree from one date to another (both included)
+	 * 
+	 * O(logN) for a MeetingIntervalTree (see MeetingIntervalTree.countMeetings(LocalDate, LocalDate))
+	 * 
+	 * @param tree = the interval tree (or any other index)
+	 * @param from = the first date to count
+	 * @param to = the last date to count
+	 * @return the number of meetings from from to to
+	 */
+	public long countMeetings(MeetingIndex tree, LocalDate from, LocalDate to) {
+		return tree.countMeetings(from, to);
+	}
+	
+	/**
+	 * Same as countMeetings(tree, from, to) but only for one day of the week
+	 * 
+	 * @param day = the day of the week to count
+	 */
+	public long countMeetings(MeetingIndex tree, LocalDate from, LocalDate to, DayOfWeek day) {
+		return tree.countMeetings(from, to, day);
 	}
 	
 	/**
@@ -54,37 +182,32 @@ public class CountMeetingsFull implements CountMeetings {
 	 * @param tree = an interval tree
 	 * @param meetings = the meetings to insert
 	 */
-	public void insertMeetings(MeetingIntervalTree tree, List<MeetingInterval> meetings) {
+	public void insertMeetings(MeetingIndex tree, List<MeetingInterval> meetings) {
 		tree.insertList(meetings);
 	}
 	
 	/**
 	 * Removes all of the given vacation intervals from the tree
 	 * 
-	 * For each vacation...
-	 * 		(1) Gets and removes all overlaps from the tree
-	 * 		(2) For each vacation...
-	 * 				(3) Splits overlap based on vacation
-	 * 				(4) Inserts split intervals back into the tree
+	 * For each vacation (see MeetingIntervalTree.removeVacation)...
+	 * 		(1) Finds every overlap in one pruned traversal (collectOverlaps)
+	 * 		(2) Removes them as a batch (removeList), rebuilding the tree instead
+	 * 		      if at least a quarter of it goes (rebuildWithout)
+	 * 		(3) Splits each overlap on the vacation and inserts what's left back in
+	 * 		      (a vacation cuts every day of the week, and on each day only the
+	 * 		      first and last overlap can have anything left, so at most two
+	 * 		      pieces per day of the week)
 	 * 
-	 * O(V*M*logN) where V = number of vacations, M = number of overlaps, logN = height of tree
-	 *   (1) O(MlogN) to remove all overlaps
-	 *   (2) O(MlogN) to split and insert overlaps
-	 *   (3) O(V*(MlogN + MlogN)) to remove vacations
-	 *   (4) O(V*M*logN) simplified
+	 * O(V*(logN + M + min(M*logN, N))) where V = number of vacations, M = number of overlaps
+	 *   (1) O(logN + M) to find the overlaps
+	 *   (2) O(M*logN) to remove them one at a time, or O(N) to rebuild
+	 *   (3) O(M) to split them and O(14*logN) to insert at most 14 pieces
 	 * 
 	 * @param tree
 	 * @param vacations
 	 */
-	public void removeVacations(MeetingIntervalTree tree, List<MeetingInterval> vacations) {
-		for (MeetingInterval vacation : vacations) {
-			List<MeetingInterval> overlaps = tree.removeAllOverlaps(vacation);
-			// for every overlap, split on vacation and insert back into tree
-			for (MeetingInterval overlap : overlaps) {
-				List<MeetingInterval> newMeetings = overlap.split(vacation);
-				tree.insertList(newMeetings);
-			}
-		}
+	public void removeVacations(MeetingIndex tree, List<MeetingInterval> vacations) {
+		tree.removeVacations(vacations);
 	}
 	
 	/**
@@ -99,10 +222,7 @@ public class CountMeetingsFull implements CountMeetings {
 	 * @param date = the date to see if there is a meeting on that day
 	 * @return whether or no there is a meeting on that day
 	 */
-	public boolean haveMeeting(MeetingIntervalTree tree, LocalDate date) {
-		MeetingInterval day = new MeetingInterval(date, date, date.getDayOfWeek());
-		if(tree.findOverlap(tree.getRoot(), day) != null)
-			return true;
-		return false;
+	public boolean haveMeeting(MeetingIndex tree, LocalDate date) {
+		return tree.haveMeeting(date);
 	}
 }
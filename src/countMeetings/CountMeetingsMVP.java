@@ -1,9 +1,17 @@
 package countMeetings;
 
+import java.io.IOException;
 import java.util.List;
 
+import countMeetings.helpers.BinaryCalendar;
+import countMeetings.helpers.BulkMeetingCounter;
 import countMeetings.helpers.CSVReader;
+import countMeetings.helpers.CheckpointedIngest;
+import countMeetings.helpers.IntervalColumns;
+import countMeetings.helpers.MeetingCounter;
 import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.PackedInterval;
+import countMeetings.helpers.ParallelCSVReader;
 
 /**
  * This is the Minimum Viable Product version of CountMeetings
@@ -36,4 +44,104 @@ public class CountMeetingsMVP implements CountMeetings {
 			
 		return total;
 	}
+	
+	/**
+	 * Same as countMeetings, but streams the rows instead of reading them into a list first.
+	 * Each row is added to a running total as soon as it is scanned, so memory stays
+	 *   flat no matter how big the file is.
+	 * 
+	 * O(N)
+	 * 
+	 * @param meetingsPath is the path to the csv meetings file
+	 * @return the total number of meetings, or -1 if the file couldn't be read
+	 *   (the rows counted before the problem aren't a real total)
+	 */
+	public long countMeetingsStreaming(String meetingsPath) {
+		CSVReader csvReader = new CSVReader();
+		MeetingCounter counter = new MeetingCounter();
+		boolean isRead = csvReader.streamMeetings(meetingsPath, counter);
+		if(!isRead) return -1;
+		
+		return counter.getTotal();
+	}
+	
+	/**
+	 * Same as countMeetings, but the file is split into chunks that are counted on
+	 *   all of the cores at once. The partial counts are added together at the end.
+	 * 
+	 * O(N/P) where P is the number of cores
+	 * 
+	 * @param meetingsPath is the path to the csv meetings file
+	 * @return the total number of meetings, or -1 if the file couldn't be read
+	 */
+	public long countMeetingsParallel(String meetingsPath) {
+		ParallelCSVReader csvReader = new ParallelCSVReader();
+		return csvReader.countMeetingsBasic(meetingsPath);
+	}
+	
+	/**
+	 * Counts the meetings in a binary calendar (see BinaryCalendar.convert)
+	 * The meetings are loaded straight into primitive columns and counted with arithmetic.
+	 * Any vacations in the file are ignored, like the rest of the MVP.
+	 * 
+	 * O(N)
+	 * 
+	 * @param binaryPath is the path to the binary calendar
+	 * @return the total number of meetings, or -1 if the file couldn't be read
+	 *   (eg. it failed its checksum)
+	 */
+	public long countMeetingsBinary(String binaryPath) {
+		BinaryCalendar calendar = new BinaryCalendar();
+		IntervalColumns meetings = calendar.readMeetingColumns(binaryPath);
+		if(meetings == null) return -1;
+		
+		return meetings.countMeetings();
+	}
+	
+	/**
+	 * Same as countMeetings, but the rows are scanned into primitive columns and
+	 *   summed in one branch-free loop by BulkMeetingCounter
+	 * 
+	 * O(N)
+	 * 
+	 * @param meetingsPath is the path to the csv meetings file
+	 * @return the total number of meetings, or -1 if the file couldn't be read
+	 */
+	public long countMeetingsBulk(String meetingsPath) {
+		CSVReader csvReader = new CSVReader();
+		IntervalColumns columns = new IntervalColumns(1024);
+		// rows that reached the handler, for the error message (like MeetingCounter)
+		long[] rows = {0};
+		boolean isRead = csvReader.streamMeetings(meetingsPath, interval -> {
+			rows[0]++;
+			if(PackedInterval.isVacation(interval.getPacked())) {
+				throw new IOException("Vacations aren't allowed in a basic file on row " + rows[0] + ".");
+			}
+			columns.add(interval);
+		});
+		if(!isRead) return -1;
+		
+		return BulkMeetingCounter.countMeetings(columns);
+	}
+	
+	/**
+	 * Same as countMeetings, but for very large files. Progress is checkpointed
+	 *   next to the csv and bad rows are written to a side file instead of
+	 *   stopping the count (see CheckpointedIngest). If it does stop, running it
+	 *   again picks up from the last checkpoint.
+	 * 
+	 * @param meetingsPath is the path to the csv meetings file
+	 * @return the total number of meetings, or -1 if it stopped early
+	 */
+	public long countMeetingsResumable(String meetingsPath) {
+		CheckpointedIngest ingest = new CheckpointedIngest(meetingsPath);
+		try {
+			return ingest.countMeetingsBasic();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+			return -1;
+		}
+	}
 }
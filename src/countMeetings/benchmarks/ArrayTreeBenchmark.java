@@ -0,0 +1,90 @@
+package countMeetings.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import countMeetings.helpers.ArrayIntervalTree;
+import countMeetings.helpers.MeetingIndex;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+
+/**
+ * Compares the heap used per interval and the speed of MeetingIntervalTree
+ *   and ArrayIntervalTree on the same meetings
+ *
+ * Run with: java -Xmx4g countMeetings.benchmarks.ArrayTreeBenchmark [intervals]
+ *
+ * Heap is measured as the difference in used memory after a GC, so it includes
+ *   everything the tree keeps alive (nodes, MeetingIntervals, LocalDates...).
+ *
+ * @author Alex Lay
+ */
+public class ArrayTreeBenchmark {
+	interface Factory {
+		MeetingIndex make();
+	}
+
+	public static void main(String[] args) {
+		int intervals = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Random random = new Random(42);
+
+		// one meeting per week so nothing merges
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>(intervals);
+		for(int x = 0; x < intervals; x++) {
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(7L * x), LocalDate.ofEpochDay(7L * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		Collections.shuffle(meetings, random);
+		List<MeetingInterval> inserts = meetings.subList(0, intervals / 10);
+		List<MeetingInterval> bulk = meetings.subList(intervals / 10, intervals);
+
+		System.out.println("intervals: " + intervals);
+		System.out.println("ArrayIntervalTree.BYTES_PER_NODE: " + ArrayIntervalTree.BYTES_PER_NODE);
+		// the first round is just to warm up the JIT
+		for(int round = 1; round <= 2; round++) {
+			System.out.println("round " + round);
+			run("MeetingIntervalTree", bulk, inserts, MeetingIntervalTree::new);
+			run("ArrayIntervalTree", bulk, inserts, ArrayIntervalTree::new);
+		}
+	}
+
+	static void run(String name, List<MeetingInterval> bulk, List<MeetingInterval> inserts, Factory factory) {
+		long before = usedMemory();
+		long start = System.nanoTime();
+		MeetingIndex index = factory.make();
+		index.insertList(bulk);
+		double bulkMs = (System.nanoTime() - start) / 1e6;
+		start = System.nanoTime();
+		for(MeetingInterval m : inserts) {
+			index.insert(m);
+		}
+		double insertMs = (System.nanoTime() - start) / 1e6;
+		long bytes = usedMemory() - before;
+		int total = bulk.size() + inserts.size();
+		System.out.printf("%-20s bulk %7.0f ms, %d inserts %7.0f ms, heap %6.1f bytes/interval%n", name, bulkMs,
+				inserts.size(), insertMs, (double) bytes / total);
+		BulkCountBenchmark.report(name + " haveMeeting x " + inserts.size(), inserts.size(), () -> {
+			long found = 0;
+			for(MeetingInterval m : inserts) {
+				if(index.haveMeeting(m.getBeginDate().with(TemporalAdjusters.nextOrSame(m.getDayOfTheWeek())))) found++;
+			}
+			return found;
+		});
+		if(index instanceof ArrayIntervalTree) {
+			System.out.printf("%-20s getBytesPerInterval %.1f (including unused slots)%n", name,
+					((ArrayIntervalTree) index).getBytesPerInterval());
+		}
+		if(index.countMeetings() != total) throw new IllegalStateException("wrong count");
+	}
+
+	static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int x = 0; x < 3; x++) System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
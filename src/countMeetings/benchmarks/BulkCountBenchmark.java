@@ -0,0 +1,84 @@
+package countMeetings.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+import countMeetings.helpers.BulkMeetingCounter;
+import countMeetings.helpers.IntervalColumns;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.PackedInterval;
+
+/**
+ * Compares the ways of summing meetings over a lot of intervals
+ *   (1) MeetingInterval.getMeetingCount on every object (on a smaller sample)
+ *   (2) PackedInterval.countMeetings on every row of the columns
+ *   (3) BulkMeetingCounter
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.BulkCountBenchmark [rows]
+ *
+ * Each one is warmed up first and then the best of several runs is printed.
+ *
+ * @author Alex Lay
+ */
+public class BulkCountBenchmark {
+	private static final int WARMUP_RUNS = 5;
+	private static final int RUNS = 10;
+	// MeetingInterval objects take a lot more memory, so only this many are made
+	private static final int OBJECT_ROWS = 1_000_000;
+
+	interface Counter {
+		long count();
+	}
+
+	public static void main(String[] args) {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+		IntervalColumns columns = randomColumns(rows, 42);
+		IntervalColumns objectColumns = randomColumns(Math.min(rows, OBJECT_ROWS), 42);
+		List<MeetingInterval> objects = objectColumns.toMeetingIntervals();
+
+		System.out.println("rows: " + rows);
+		report("MeetingInterval.getMeetingCount (" + objects.size() + " rows)", objects.size(), () -> {
+			long total = 0;
+			for(MeetingInterval m : objects) total += m.getMeetingCount();
+			return total;
+		});
+		report("PackedInterval.countMeetings", rows, () -> {
+			int[] begin = columns.getBegin(), end = columns.getEnd();
+			byte[] day = columns.getDay();
+			long total = 0;
+			for(int x = 0; x < rows; x++) {
+				if(day[x] != IntervalColumns.VACATION) {
+					total += PackedInterval.countMeetings(begin[x], end[x], day[x]);
+				}
+			}
+			return total;
+		});
+		report("BulkMeetingCounter", rows, () -> BulkMeetingCounter.countMeetings(columns));
+	}
+
+	/**
+	 * Meetings up to a couple of years long around 2000-2030, with a vacation every 50 rows
+	 */
+	static IntervalColumns randomColumns(int rows, long seed) {
+		Random random = new Random(seed);
+		IntervalColumns columns = new IntervalColumns(rows);
+		for(int x = 0; x < rows; x++) {
+			int begin = 10957 + random.nextInt(11000);
+			columns.add(begin, begin + random.nextInt(730), x % 50 == 0 ? IntervalColumns.VACATION : 1 + random.nextInt(7));
+		}
+		return columns;
+	}
+
+	static void report(String name, int rows, Counter counter) {
+		long total = 0;
+		for(int x = 0; x < WARMUP_RUNS; x++) total += counter.count();
+		long best = Long.MAX_VALUE;
+		for(int x = 0; x < RUNS; x++) {
+			long start = System.nanoTime();
+			total += counter.count();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.printf("%-50s %8.2f ms  %6.2f ns/row  (total %d)%n", name, best / 1e6, (double) best / rows,
+				total / (WARMUP_RUNS + RUNS));
+	}
+}
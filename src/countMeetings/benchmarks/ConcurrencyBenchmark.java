@@ -0,0 +1,123 @@
+package countMeetings.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import countMeetings.helpers.ConcurrentMeetingIntervalTree;
+import countMeetings.helpers.MeetingIndex;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+
+/**
+ * Compares a ConcurrentMeetingIntervalTree to a MeetingIntervalTree behind one
+ *   big synchronized lock, with many threads doing 90% reads (haveMeeting and
+ *   range counts) and 10% writes (inserts and small vacations)
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.ConcurrencyBenchmark [threads] [seconds]
+ *
+ * The answer depends a lot on how many cores there are; with fewer cores than
+ *   threads most of the time goes to switching threads either way.
+ *
+ * @author Alex Lay
+ */
+public class ConcurrencyBenchmark {
+	private static final int INTERVALS = 100_000;
+	private static final int READ_PERCENT = 90;
+
+	/**
+	 * Every method holds the tree's lock, so only one thread can use it at a time
+	 */
+	static class SynchronizedIndex implements MeetingIndex {
+		private final MeetingIntervalTree tree = new MeetingIntervalTree();
+
+		public synchronized void insert(MeetingInterval m) { tree.insert(m); }
+		public synchronized void insertList(List<MeetingInterval> meetings) { tree.insertList(meetings); }
+		public synchronized void removeVacation(MeetingInterval vacation) { tree.removeVacation(vacation); }
+		public synchronized long countMeetings() { return tree.countMeetings(); }
+		public synchronized long countMeetings(LocalDate from, LocalDate to) { return tree.countMeetings(from, to); }
+		public synchronized long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+			return tree.countMeetings(from, to, day);
+		}
+		public synchronized boolean haveMeeting(LocalDate date) { return tree.haveMeeting(date); }
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		System.out.println("threads: " + threads + ", cores: " + Runtime.getRuntime().availableProcessors()
+				+ ", reads: " + READ_PERCENT + "%");
+
+		// warm up both once so the second one doesn't get a better JIT
+		run("synchronized MeetingIntervalTree", new SynchronizedIndex(), threads, 1, false);
+		run("ConcurrentMeetingIntervalTree", new ConcurrentMeetingIntervalTree(), threads, 1, false);
+		run("synchronized MeetingIntervalTree", new SynchronizedIndex(), threads, seconds, true);
+		run("ConcurrentMeetingIntervalTree", new ConcurrentMeetingIntervalTree(), threads, seconds, true);
+	}
+
+	static void run(String name, MeetingIndex index, int threads, int seconds, boolean print) throws InterruptedException {
+		Random random = new Random(42);
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>(INTERVALS);
+		for(int x = 0; x < INTERVALS; x++) {
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(7L * x), LocalDate.ofEpochDay(7L * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		index.insertList(meetings);
+
+		LongAdder reads = new LongAdder(), writes = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		long stopAt = System.nanoTime() + seconds * 1_000_000_000L;
+		List<Thread> workers = new ArrayList<Thread>();
+		for(int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				ThreadLocalRandom r = ThreadLocalRandom.current();
+				long sink = 0;
+				try {
+					start.await();
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+				while(System.nanoTime() < stopAt) {
+					// do a batch between clock checks so nanoTime doesn't dominate
+					for(int x = 0; x < 64; x++) {
+						LocalDate date = LocalDate.ofEpochDay(r.nextInt(7 * INTERVALS));
+						int op = r.nextInt(100);
+						if(op < READ_PERCENT / 2) {
+							if(index.haveMeeting(date)) sink++;
+							reads.increment();
+						}
+						else if(op < READ_PERCENT) {
+							sink += index.countMeetings(date, date.plusDays(r.nextInt(365)));
+							reads.increment();
+						}
+						else if(op % 2 == 0) {
+							index.insert(new MeetingInterval(date, date.plusDays(6), DayOfWeek.of(1 + r.nextInt(7))));
+							writes.increment();
+						}
+						else {
+							index.removeVacation(new MeetingInterval(date, date, null));
+							writes.increment();
+						}
+					}
+				}
+				if(sink == 42) System.out.print("");
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for(Thread worker : workers) worker.join();
+		double elapsed = (System.nanoTime() - begin) / 1e9;
+		if(print) {
+			System.out.printf("%-35s %12.0f ops/s  (%d reads, %d writes)%n", name,
+					(reads.sum() + writes.sum()) / elapsed, reads.sum(), writes.sum());
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package countMeetings.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import countMeetings.helpers.ConcurrentMeetingIntervalTree;
+import countMeetings.helpers.MeetingIndex;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.SkipListMeetingIndex;
+
+/**
+ * Compares how insert throughput scales with the number of writer threads for
+ *   a SkipListMeetingIndex (writers don't lock each other out) and a
+ *   ConcurrentMeetingIntervalTree (every insert takes the write lock)
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.ConcurrentInsertBenchmark [meetings] [maxThreads]
+ *
+ * The meetings are split evenly between the threads. Some of them overlap, so
+ *   there is merging too. Scaling can only show up with at least as many cores
+ *   as threads.
+ *
+ * @author Alex Lay
+ */
+public class ConcurrentInsertBenchmark {
+	private static final int RUNS = 3;
+
+	public static void main(String[] args) throws InterruptedException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		Random random = new Random(42);
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>(count);
+		for(int x = 0; x < count; x++) {
+			long begin = random.nextInt(7 * count);
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(begin), LocalDate.ofEpochDay(begin + random.nextInt(28)),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+
+		System.out.println("meetings: " + count + ", cores: " + Runtime.getRuntime().availableProcessors());
+		for(int threads = 1; threads <= maxThreads; threads *= 2) {
+			report("SkipListMeetingIndex", SkipListMeetingIndex::new, meetings, threads);
+			report("ConcurrentMeetingIntervalTree", ConcurrentMeetingIntervalTree::new, meetings, threads);
+		}
+	}
+
+	static void report(String name, Supplier<MeetingIndex> factory, List<MeetingInterval> meetings, int threads)
+			throws InterruptedException {
+		long best = Long.MAX_VALUE, total = 0;
+		for(int run = 0; run < RUNS; run++) {
+			MeetingIndex index = factory.get();
+			List<Thread> writers = new ArrayList<Thread>();
+			for(int t = 0; t < threads; t++) {
+				List<MeetingInterval> share = meetings.subList(t * meetings.size() / threads, (t + 1) * meetings.size() / threads);
+				writers.add(new Thread(() -> {
+					for(MeetingInterval m : share) index.insert(m);
+				}));
+			}
+			long start = System.nanoTime();
+			for(Thread writer : writers) writer.start();
+			for(Thread writer : writers) writer.join();
+			best = Math.min(best, System.nanoTime() - start);
+			total = index.countMeetings();
+		}
+		System.out.printf("%-30s %2d threads %12.0f inserts/s  (%d meetings)%n", name, threads,
+				meetings.size() / (best / 1e9), total);
+	}
+}
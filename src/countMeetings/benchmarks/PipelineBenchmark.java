@@ -0,0 +1,70 @@
+package countMeetings.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PipelinedIngest;
+
+/**
+ * Compares CountMeetingsFull.countMeetings (read everything, then insert
+ *   everything) to a PipelinedIngest on a generated csv file, and prints how
+ *   long each stage of the pipeline worked and waited
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.PipelineBenchmark [rows] [parsers]
+ *
+ * @author Alex Lay
+ */
+public class PipelineBenchmark {
+	private static final int RUNS = 3;
+
+	public static void main(String[] args) throws IOException {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		int parsers = args.length > 1 ? Integer.parseInt(args[1])
+				: Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		Path csv = Files.createTempFile("pipeline", ".csv");
+		try {
+			writeFile(csv, rows);
+			System.out.println("rows: " + rows + ", parsers: " + parsers + ", cores: "
+					+ Runtime.getRuntime().availableProcessors());
+
+			CountMeetingsFull countMeetingsFull = new CountMeetingsFull();
+			for(int run = 0; run < RUNS; run++) {
+				long start = System.nanoTime();
+				int count = countMeetingsFull.countMeetings(csv.toString());
+				System.out.printf("sequential  %8.0f ms  (%d meetings)%n", (System.nanoTime() - start) / 1e6, count);
+
+				start = System.nanoTime();
+				PipelinedIngest ingest = new PipelinedIngest(csv.toString(), parsers, 1 << 20);
+				MeetingIntervalTree tree = new MeetingIntervalTree();
+				List<MeetingInterval> vacations = ingest.ingestFull(tree);
+				tree.removeVacations(vacations);
+				System.out.printf("pipelined   %8.0f ms  (%d meetings)%n", (System.nanoTime() - start) / 1e6, tree.countMeetings());
+				if(run == RUNS - 1) System.out.println(ingest.getMetricsReport());
+			}
+		}
+		finally {
+			Files.delete(csv);
+		}
+	}
+
+	static void writeFile(Path csv, int rows) throws IOException {
+		String days[] = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+		Random random = new Random(42);
+		try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv))) {
+			for(int x = 0; x < rows; x++) {
+				int year = 1990 + random.nextInt(60), month = 1 + random.nextInt(12), day = 1 + random.nextInt(28);
+				String begin = String.format("%d-%02d-%02d", year, month, day);
+				String end = String.format("%d-%02d-%02d", year + random.nextInt(2), month, day);
+				if(x % 1000 == 0) writer.print(begin + "," + begin + ",Vacation\n");
+				else writer.print(begin + "," + end + "," + days[random.nextInt(7)] + "\n");
+			}
+		}
+	}
+}
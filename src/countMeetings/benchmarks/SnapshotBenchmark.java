@@ -0,0 +1,60 @@
+package countMeetings.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PersistentMeetingIntervalTree;
+
+/**
+ * Compares getting a consistent copy of the calendar by copying a
+ *   MeetingIntervalTree to taking a PersistentMeetingIntervalTree snapshot, and
+ *   what path copying costs on inserts
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.SnapshotBenchmark [intervals]
+ *
+ * @author Alex Lay
+ */
+public class SnapshotBenchmark {
+	public static void main(String[] args) {
+		int intervals = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Random random = new Random(42);
+
+		// one meeting per week so nothing merges
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>(intervals);
+		for(int x = 0; x < intervals; x++) {
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(7L * x), LocalDate.ofEpochDay(7L * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		Collections.shuffle(meetings, random);
+		List<MeetingInterval> inserts = meetings.subList(0, intervals / 10);
+		List<MeetingInterval> bulk = meetings.subList(intervals / 10, intervals);
+
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		tree.insertList(bulk);
+		PersistentMeetingIntervalTree persistent = new PersistentMeetingIntervalTree();
+		persistent.insertList(bulk);
+
+		System.out.println("intervals: " + bulk.size());
+		BulkCountBenchmark.report("copy MeetingIntervalTree", bulk.size(), () -> {
+			MeetingIntervalTree copy = new MeetingIntervalTree();
+			copy.insertList(tree.toList());
+			return copy.countMeetings();
+		});
+		BulkCountBenchmark.report("PersistentMeetingIntervalTree.snapshot", bulk.size(),
+				() -> persistent.snapshot().countMeetings());
+
+		long start = System.nanoTime();
+		for(MeetingInterval m : inserts) tree.insert(m);
+		System.out.printf("%d inserts, MeetingIntervalTree: %.0f ms%n", inserts.size(), (System.nanoTime() - start) / 1e6);
+		start = System.nanoTime();
+		for(MeetingInterval m : inserts) persistent.insert(m);
+		System.out.printf("%d inserts, PersistentMeetingIntervalTree: %.0f ms%n", inserts.size(),
+				(System.nanoTime() - start) / 1e6);
+	}
+}
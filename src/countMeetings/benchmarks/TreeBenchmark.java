@@ -0,0 +1,151 @@
+package countMeetings.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalNode;
+import countMeetings.helpers.MeetingIntervalTree;
+
+/**
+ * Times the MeetingIntervalTree operations on a big tree, next to the recursive,
+ *   iterative and repeated-search versions they replaced (copied here so they can still be compared)
+ *
+ * Run with: java -Xmx2g countMeetings.benchmarks.TreeBenchmark [nodes]
+ *
+ * @author Alex Lay
+ */
+public class TreeBenchmark {
+	public static void main(String[] args) {
+		int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Random random = new Random(42);
+
+		// one meeting per week so nothing merges and the tree has exactly nodes nodes
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>(nodes);
+		for(int x = 0; x < nodes; x++) {
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(7L * x), LocalDate.ofEpochDay(7L * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		List<MeetingInterval> queries = new ArrayList<MeetingInterval>(meetings);
+		Collections.shuffle(meetings, random);
+		Collections.shuffle(queries, random);
+
+		long start = System.nanoTime();
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		tree.insertList(meetings);
+		System.out.printf("nodes: %d, build %.0f ms, %.1f augmentation visits per insert%n", nodes,
+				(System.nanoTime() - start) / 1e6, (double) tree.getAugmentationVisits() / nodes);
+
+		BulkCountBenchmark.report("countMeetings (recursive)", nodes, () -> countMeetingsRecursive(tree.getRoot()));
+		BulkCountBenchmark.report("countMeetings (iterative)", nodes, () -> countMeetingsIterative(tree.getRoot()));
+		BulkCountBenchmark.report("countMeetings (subtree counts)", nodes, () -> tree.countMeetings());
+		BulkCountBenchmark.report("findOverlap x N (recursive)", nodes, () -> {
+			long found = 0;
+			for(MeetingInterval query : queries) {
+				if(findOverlapRecursive(tree.getRoot(), query) != null) found++;
+			}
+			return found;
+		});
+		BulkCountBenchmark.report("findOverlap x N (iterative)", nodes, () -> {
+			long found = 0;
+			for(MeetingInterval query : queries) {
+				if(tree.findOverlap(tree.getRoot(), query) != null) found++;
+			}
+			return found;
+		});
+		BulkCountBenchmark.report("toList (iterative)", nodes, () -> tree.toList().size());
+		BulkCountBenchmark.report("countMeetings(from, to) x N", nodes, () -> {
+			long total = 0;
+			for(MeetingInterval query : queries) {
+				total += tree.countMeetings(query.getBeginDate(), query.getBeginDate().plusDays(365));
+			}
+			return total;
+		});
+
+		// remove half of the nodes, then put them back
+		List<MeetingInterval> half = queries.subList(0, nodes / 2);
+		long visits = tree.getAugmentationVisits();
+		start = System.nanoTime();
+		for(MeetingInterval query : half) {
+			tree.remove(tree.findOverlap(tree.getRoot(), query));
+		}
+		System.out.printf("remove %d nodes: %.0f ms, %.1f augmentation visits per remove%n", half.size(),
+				(System.nanoTime() - start) / 1e6, (double) (tree.getAugmentationVisits() - visits) / half.size());
+		visits = tree.getAugmentationVisits();
+		start = System.nanoTime();
+		tree.insertList(half);
+		System.out.printf("insert %d nodes: %.0f ms, %.1f augmentation visits per insert%n", half.size(),
+				(System.nanoTime() - start) / 1e6, (double) (tree.getAugmentationVisits() - visits) / half.size());
+		
+		// a company-wide vacation over a tenth of the calendar (N / 10 meetings)
+		MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(7L * nodes / 2),
+				LocalDate.ofEpochDay(7L * nodes / 2 + 7L * nodes / 10 - 1), null);
+		MeetingIntervalTree repeated = new MeetingIntervalTree();
+		repeated.insertList(meetings);
+		start = System.nanoTime();
+		int removed = removeAllOverlapsRepeated(repeated, vacation).size();
+		System.out.printf("removeAllOverlaps, %d overlaps (repeated findOverlap): %.0f ms%n", removed,
+				(System.nanoTime() - start) / 1e6);
+		start = System.nanoTime();
+		removed = tree.removeAllOverlaps(vacation).size();
+		System.out.printf("removeAllOverlaps, %d overlaps (collectOverlaps): %.0f ms%n", removed,
+				(System.nanoTime() - start) / 1e6);
+	}
+
+	// ************** the old recursive versions **********************
+
+	static int countMeetingsRecursive(MeetingIntervalNode root) {
+		if(root == null) return 0;
+
+		return root.getValue().getMeetingCount() + countMeetingsRecursive(root.getRight())
+				+ countMeetingsRecursive(root.getLeft());
+	}
+
+	static List<MeetingInterval> removeAllOverlapsRepeated(MeetingIntervalTree tree, MeetingInterval value) {
+		List<MeetingInterval> overlaps = new ArrayList<MeetingInterval>();
+		MeetingIntervalNode overlap = tree.findOverlap(tree.getRoot(), value);
+		while(overlap != null) {
+			overlaps.add(overlap.getValue());
+			tree.remove(overlap);
+			overlap = tree.findOverlap(tree.getRoot(), value);
+		}
+		return overlaps;
+	}
+	
+	static int countMeetingsIterative(MeetingIntervalNode root) {
+		int total = 0;
+		Deque<MeetingIntervalNode> stack = new ArrayDeque<MeetingIntervalNode>();
+		if(root != null) stack.push(root);
+		while(!stack.isEmpty()) {
+			MeetingIntervalNode current = stack.pop();
+			total += current.getValue().getMeetingCount();
+			if(current.getRight() != null) stack.push(current.getRight());
+			if(current.getLeft() != null) stack.push(current.getLeft());
+		}
+		return total;
+	}
+	
+	static MeetingIntervalNode findOverlapRecursive(MeetingIntervalNode current, MeetingInterval value) {
+		if(current == null) return null;
+
+		MeetingInterval currentValue = current.getValue();
+		if(currentValue.overlaps(value)) {
+			return current;
+		}
+		else if(currentValue.getDayOfTheWeek() != null && value.getDayOfTheWeek() != null) {
+			MeetingIntervalNode left = current.getLeft();
+			if(left != null && left.getDayMaxEpochDay(value.getDayOfTheWeek()) >= value.getBeginDate().toEpochDay())
+				return findOverlapRecursive(left, value);
+			return findOverlapRecursive(current.getRight(), value);
+		}
+		else if(current.getLeft() != null && current.getLeft().getMaxEpochDay() >= value.getBeginDate().toEpochDay())
+			return findOverlapRecursive(current.getLeft(), value);
+		return findOverlapRecursive(current.getRight(), value);
+	}
+}
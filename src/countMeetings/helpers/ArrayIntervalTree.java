@@ -0,0 +1,809 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The same interval tree as MeetingIntervalTree (augmented Red-Black tree), but
+ *   the nodes are slots in parallel primitive arrays instead of objects
+ *
+ * A MeetingIntervalNode is an object with a MeetingInterval (two LocalDates),
+ *   arrays for its dayMaxes and day counts and three pointers. Here a node is
+ *   just an int index into...
+ *   begin, end, day          = the interval as epoch days and an ISO day of the week
+ *   parent, left, right      = other slots
+ *   red                      = one bit for the color
+ *   max, dayMax, count, ...  = the same augmentations MeetingIntervalTree keeps
+ * so it's about BYTES_PER_NODE bytes per interval and no garbage for the GC to
+ *   walk through.
+ *
+ * Slot 0 is the NIL leaf (T.nil in Cormen): it's black, has no meetings, and its
+ *   maxes are smaller than any date, so the augmentations can be read from a
+ *   child without checking for null. Removed slots go on a free list (chained
+ *   through left) and are handed out again by the next insert.
+ *
+ * Only meetings can be inserted (vacations are removed with removeVacation).
+ *
+ * @author Alex Lay
+ */
+public class ArrayIntervalTree implements MeetingIndex {
+	private static final int NIL = 0;
+	// smaller than any epoch day, so the NIL leaf never looks like an overlap
+	private static final int NO_DAY = Integer.MIN_VALUE;
+	private static final int INITIAL_CAPACITY = 16;
+	// removeSlots rebuilds the tree instead of removing one at a time if at least 1/REBUILD_FRACTION of it goes
+	private static final int REBUILD_FRACTION = 4;
+	// a Red-Black tree with fewer than 2^31 nodes is at most 62 levels deep
+	private static final int MAX_HEIGHT = 64;
+
+	/**
+	 * The bytes each node takes up in the arrays (plus one bit for its color)
+	 *   begin, end, parent, left, right, max, valueCount = 7 ints
+	 *   day = 1 byte
+	 *   dayMax = 7 ints
+	 *   count = 1 long, dayCount = 7 longs
+	 * The arrays can be up to twice as big as they need to be after they grow
+	 *   (see getAllocatedBytes).
+	 */
+	public static final int BYTES_PER_NODE = 7 * 4 + 1 + 7 * 4 + 8 + 7 * 8;
+
+	private int[] begin, end;
+	private byte[] day;
+	private int[] parent, left, right;
+	private final BitSet red = new BitSet();
+	private int[] max;
+	private int[] dayMax; // 7 per slot
+	private int[] valueCount; // the number of meetings in the slot's own interval
+	private long[] count; // the number of meetings in the slot's subtree
+	private long[] dayCount; // 7 per slot
+
+	private int root = NIL;
+	private int size = 0; // the number of nodes in the tree
+	private int used = 1; // slots that have ever been handed out (slot 0 is NIL)
+	private int free = NIL; // the first slot on the free list
+
+	public ArrayIntervalTree() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param capacity = how many intervals to make room for up front
+	 */
+	public ArrayIntervalTree(int capacity) {
+		allocate(Math.max(capacity, 1) + 1);
+	}
+
+	/**
+	 * @return the number of nodes (merged intervals) in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the bytes taken up by the arrays right now (including unused slots)
+	 */
+	public long getAllocatedBytes() {
+		return (long) begin.length * BYTES_PER_NODE + red.size() / 8;
+	}
+
+	/**
+	 * @return getAllocatedBytes spread over the intervals in the tree
+	 */
+	public double getBytesPerInterval() {
+		return size == 0 ? 0 : (double) getAllocatedBytes() / size;
+	}
+
+	// ************** MeetingIndex **********************
+
+	/**
+	 * Inserts a meeting, merging it with every meeting it overlaps
+	 *
+	 * O(logN + K) where K is the number of meetings it overlaps
+	 *
+	 * @param m = the meeting to insert
+	 */
+	@Override
+	public void insert(MeetingInterval m) {
+		if(m.packed == PackedInterval.EMPTY || PackedInterval.isVacation(m.packed)) {
+			throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+		}
+		insert(PackedInterval.begin(m.packed), PackedInterval.end(m.packed), PackedInterval.day(m.packed));
+	}
+
+	/**
+	 * Inserts a list of meetings
+	 *
+	 * If the list is at least as big as the tree, the tree is rebuilt with them
+	 *   (see bulkLoad). Otherwise each meeting is inserted one at a time.
+	 *
+	 * @param meetings = the list to insert
+	 */
+	@Override
+	public void insertList(List<MeetingInterval> meetings) {
+		long[] packed = new long[meetings.size()];
+		for(int x = 0; x < packed.length; x++) {
+			packed[x] = meetings.get(x).packed;
+			if(packed[x] == PackedInterval.EMPTY || PackedInterval.isVacation(packed[x])) {
+				throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+			}
+		}
+		insertPacked(packed, packed.length);
+	}
+
+	/**
+	 * Removes every meeting that overlaps with the vacation, splits them on it
+	 *   and puts back what's left
+	 *
+	 * @param vacation = the vacation to remove
+	 */
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		int[] overlaps = collectOverlaps(PackedInterval.begin(vacation.packed), PackedInterval.end(vacation.packed),
+				PackedInterval.VACATION);
+		long[] pieces = new long[2 * overlaps.length];
+		long[] split = new long[2];
+		int n = 0;
+		for(int slot : overlaps) {
+			int k = PackedInterval.split(packed(slot), vacation.packed, split);
+			for(int x = 0; x < k; x++) pieces[n++] = split[x];
+		}
+		removeSlots(overlaps);
+		insertPacked(pieces, n);
+	}
+
+	/**
+	 * O(1) (it's the root's subtree count)
+	 */
+	@Override
+	public long countMeetings() {
+		return count[root];
+	}
+
+	/**
+	 * Counts the meetings from one date to another (both included), the same
+	 *   way as MeetingIntervalTree.countMeetings(LocalDate, LocalDate)
+	 *
+	 * O(logN)
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		return countMeetings(from, to, PackedInterval.VACATION);
+	}
+
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return countMeetings(from, to, day.getValue());
+	}
+
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		int epochDay = (int) date.toEpochDay();
+		return findOverlap(epochDay, epochDay, date.getDayOfWeek().getValue()) != NIL;
+	}
+
+	/**
+	 * @return every interval in the tree, sorted by beginDate
+	 */
+	public List<MeetingInterval> toList() {
+		List<MeetingInterval> intervals = new ArrayList<MeetingInterval>(size);
+		for(long packed : inorder(null)) {
+			intervals.add(PackedInterval.unpack(packed));
+		}
+		return intervals;
+	}
+
+	/**
+	 * Finds an interval that overlaps with the given value (only meetings on the
+	 *   same day of the week if value is a meeting, like MeetingIntervalTree.findOverlap)
+	 *
+	 * O(logN)
+	 *
+	 * @param value = the value to find what overlaps with it
+	 * @return an interval that overlaps with value, or null if there isn't one
+	 */
+	public MeetingInterval findOverlap(MeetingInterval value) {
+		int slot = findOverlap(PackedInterval.begin(value.packed), PackedInterval.end(value.packed), PackedInterval.day(value.packed));
+		return slot == NIL ? null : PackedInterval.unpack(packed(slot));
+	}
+
+	/**
+	 * Removes all intervals that overlap with value and returns them in a list
+	 *   (see MeetingIntervalTree.removeAllOverlaps)
+	 *
+	 * O(logN + K*logN) for K overlaps, or O(N) if the tree is rebuilt (see removeSlots)
+	 *
+	 * @param value = the value to check what overlaps with it
+	 * @return a list of intervals that overlap with value
+	 */
+	public List<MeetingInterval> removeAllOverlaps(MeetingInterval value) {
+		int[] slots = collectOverlaps(PackedInterval.begin(value.packed), PackedInterval.end(value.packed),
+				PackedInterval.day(value.packed));
+		List<MeetingInterval> overlaps = new ArrayList<MeetingInterval>(slots.length);
+		for(int slot : slots) {
+			overlaps.add(PackedInterval.unpack(packed(slot)));
+		}
+		removeSlots(slots);
+		return overlaps;
+	}
+
+	// ************** inserting **********************
+
+	/**
+	 * Merges [b, e] with everything it overlaps and inserts the result
+	 */
+	private void insert(int b, int e, int d) {
+		int[] overlaps = collectOverlaps(b, e, d);
+		for(int slot : overlaps) {
+			b = Math.min(b, begin[slot]);
+			e = Math.max(e, end[slot]);
+		}
+		removeSlots(overlaps);
+
+		int z = newSlot(b, e, d);
+		int y = NIL;
+		for(int x = root; x != NIL; ) {
+			y = x;
+			// sort by beginDate
+			x = b <= begin[x] ? left[x] : right[x];
+		}
+		parent[z] = y;
+		if(y == NIL) root = z;
+		else if(b <= begin[y]) left[y] = z;
+		else right[y] = z;
+		size++;
+
+		// fix the maxes and counts above the new node before rotating (rotations only fix the two nodes they move)
+		recalculateMax(y);
+		recalculateCount(y);
+		insertionFixUp(z);
+	}
+
+	/**
+	 * Inserts packed[0..n-1], either one at a time or by rebuilding the tree
+	 */
+	private void insertPacked(long[] packed, int n) {
+		if(n >= size) {
+			bulkLoad(packed, n);
+			return;
+		}
+		for(int x = 0; x < n; x++) {
+			insert(PackedInterval.begin(packed[x]), PackedInterval.end(packed[x]), PackedInterval.day(packed[x]));
+		}
+	}
+
+	/**
+	 * Rebuilds the tree from its own intervals plus packed[0..n-1]
+	 *   (see PackedInterval.coalesce and MeetingIntervalTree.bulkLoad)
+	 */
+	private void bulkLoad(long[] packed, int n) {
+		long[] all = inorder(null);
+		all = Arrays.copyOf(all, all.length + n);
+		System.arraycopy(packed, 0, all, all.length - n, n);
+		rebuild(all, PackedInterval.coalesce(all, all.length));
+	}
+
+	/**
+	 * CLRS RB-INSERT-FIXUP
+	 */
+	private void insertionFixUp(int z) {
+		while(isRed(parent[z])) {
+			int p = parent[z], g = parent[p];
+			if(p == left[g]) {
+				int uncle = right[g];
+				if(isRed(uncle)) {
+					red.clear(p);
+					red.clear(uncle);
+					red.set(g);
+					z = g;
+				}
+				else {
+					if(z == right[p]) {
+						z = p;
+						leftRotate(z);
+						p = parent[z];
+					}
+					red.clear(p);
+					red.set(g);
+					rightRotate(g);
+				}
+			}
+			else {
+				int uncle = left[g];
+				if(isRed(uncle)) {
+					red.clear(p);
+					red.clear(uncle);
+					red.set(g);
+					z = g;
+				}
+				else {
+					if(z == left[p]) {
+						z = p;
+						rightRotate(z);
+						p = parent[z];
+					}
+					red.clear(p);
+					red.set(g);
+					leftRotate(g);
+				}
+			}
+		}
+		red.clear(root);
+	}
+
+	// ************** removing **********************
+
+	/**
+	 * Removes a batch of slots
+	 *
+	 * If it's a big part of the tree, the rest of it is rebuilt in O(N) instead
+	 *   (like MeetingIntervalTree.removeList).
+	 */
+	private void removeSlots(int[] slots) {
+		if(slots.length >= REBUILD_FRACTION && slots.length >= size / REBUILD_FRACTION) {
+			BitSet skip = new BitSet(used);
+			for(int slot : slots) skip.set(slot);
+			long[] kept = inorder(skip);
+			rebuild(kept, kept.length);
+			return;
+		}
+		for(int slot : slots) {
+			remove(slot);
+		}
+	}
+
+	/**
+	 * CLRS RB-DELETE (section 13.4); the successor slot moves into z's place so
+	 *   other slot numbers stay valid
+	 */
+	private void remove(int z) {
+		int y = z;
+		boolean yWasRed = isRed(y);
+		int x;
+		if(left[z] == NIL) {
+			x = right[z];
+			transplant(z, right[z]);
+		}
+		else if(right[z] == NIL) {
+			x = left[z];
+			transplant(z, left[z]);
+		}
+		else {
+			y = right[z];
+			while(left[y] != NIL) y = left[y];
+			yWasRed = isRed(y);
+			x = right[y];
+			if(parent[y] == z) {
+				parent[x] = y; // x can be NIL, which deletionFixUp needs to know the parent of
+			}
+			else {
+				transplant(y, right[y]);
+				right[y] = right[z];
+				parent[right[y]] = y;
+			}
+			transplant(z, y);
+			left[y] = left[z];
+			parent[left[y]] = y;
+			red.set(y, isRed(z));
+			// y starts with z's augmentations so the slots above it still agree with it
+			copyAugmentations(z, y);
+		}
+		size--;
+
+		// parent[x] is where y was taken from (which is y or below it if z had 2 children)
+		int changed = parent[x];
+		recalculateMax(changed);
+		if(y != z) recalculateMax(y);
+		recalculateCount(changed);
+		if(!yWasRed) deletionFixUp(x);
+		freeSlot(z);
+	}
+
+	/**
+	 * Replaces the subtree at u with the subtree at v (v can be NIL)
+	 */
+	private void transplant(int u, int v) {
+		if(parent[u] == NIL) root = v;
+		else if(u == left[parent[u]]) left[parent[u]] = v;
+		else right[parent[u]] = v;
+		parent[v] = parent[u];
+	}
+
+	/**
+	 * CLRS RB-DELETE-FIXUP
+	 */
+	private void deletionFixUp(int x) {
+		while(x != root && !isRed(x)) {
+			int p = parent[x];
+			if(x == left[p]) {
+				int sibling = right[p];
+				if(isRed(sibling)) {
+					red.clear(sibling);
+					red.set(p);
+					leftRotate(p);
+					sibling = right[p];
+				}
+				if(!isRed(left[sibling]) && !isRed(right[sibling])) {
+					red.set(sibling);
+					x = p;
+				}
+				else {
+					if(!isRed(right[sibling])) {
+						red.clear(left[sibling]);
+						red.set(sibling);
+						rightRotate(sibling);
+						sibling = right[p];
+					}
+					red.set(sibling, isRed(p));
+					red.clear(p);
+					red.clear(right[sibling]);
+					leftRotate(p);
+					x = root;
+				}
+			}
+			else {
+				int sibling = left[p];
+				if(isRed(sibling)) {
+					red.clear(sibling);
+					red.set(p);
+					rightRotate(p);
+					sibling = left[p];
+				}
+				if(!isRed(left[sibling]) && !isRed(right[sibling])) {
+					red.set(sibling);
+					x = p;
+				}
+				else {
+					if(!isRed(left[sibling])) {
+						red.clear(right[sibling]);
+						red.set(sibling);
+						leftRotate(sibling);
+						sibling = left[p];
+					}
+					red.set(sibling, isRed(p));
+					red.clear(p);
+					red.clear(left[sibling]);
+					rightRotate(p);
+					x = root;
+				}
+			}
+		}
+		red.clear(x);
+	}
+
+	// ************** searching **********************
+
+	/**
+	 * @return a slot that overlaps with [b, e] on day d (any day for VACATION), or NIL
+	 */
+	private int findOverlap(int b, int e, int d) {
+		int current = root;
+		while(current != NIL) {
+			if(overlaps(current, b, e, d)) return current;
+			current = canOverlap(left[current], b, d) ? left[current] : right[current];
+		}
+		return NIL;
+	}
+
+	/**
+	 * Finds every slot that overlaps with [b, e] on day d in one pruned traversal
+	 *   (see MeetingIntervalTree.collectOverlaps)
+	 */
+	private int[] collectOverlaps(int b, int e, int d) {
+		int[] found = new int[8];
+		int n = 0;
+		int[] stack = new int[2 * MAX_HEIGHT];
+		int top = 0;
+		if(canOverlap(root, b, d)) stack[top++] = root;
+		while(top > 0) {
+			int current = stack[--top];
+			if(overlaps(current, b, e, d)) {
+				if(n == found.length) found = Arrays.copyOf(found, 2 * n);
+				found[n++] = current;
+			}
+			if(begin[current] <= e && canOverlap(right[current], b, d)) stack[top++] = right[current];
+			if(canOverlap(left[current], b, d)) stack[top++] = left[current];
+		}
+		return Arrays.copyOf(found, n);
+	}
+
+	private boolean overlaps(int slot, int b, int e, int d) {
+		return (d == PackedInterval.VACATION || day[slot] == d) && begin[slot] <= e && b <= end[slot];
+	}
+
+	/**
+	 * @return whether anything in slot's subtree on day d can end on or after b (false for NIL)
+	 */
+	private boolean canOverlap(int slot, int b, int d) {
+		return (d == PackedInterval.VACATION ? max[slot] : dayMax[7 * slot + d - 1]) >= b;
+	}
+
+	/**
+	 * See MeetingIntervalTree.countMeetings(LocalDate, LocalDate, int)
+	 */
+	private long countMeetings(LocalDate from, LocalDate to, int d) {
+		int b = (int) Math.max(from.toEpochDay(), -PackedInterval.BIAS);
+		int e = (int) Math.min(to.toEpochDay(), PackedInterval.BIAS - 1);
+		if(b > e) return 0;
+
+		long total = countBeginningBy(e, d) - countBeginningBy(b - 1, d);
+		for(int slot : collectOverlaps(e, e, d)) {
+			if(begin[slot] >= b && end[slot] > e) total -= PackedInterval.countMeetings(e + 1, end[slot], day[slot]);
+		}
+		for(int slot : collectOverlaps(b, b, d)) {
+			if(begin[slot] < b) total += PackedInterval.countMeetings(b, Math.min(end[slot], e), day[slot]);
+		}
+		return total;
+	}
+
+	/**
+	 * @return the meetings (on day d, or every day for VACATION) in every interval beginning on or before epochDay
+	 */
+	private long countBeginningBy(int epochDay, int d) {
+		long total = 0;
+		int current = root;
+		while(current != NIL) {
+			if(begin[current] <= epochDay) {
+				if(d == PackedInterval.VACATION) total += valueCount[current] + count[left[current]];
+				else total += (day[current] == d ? valueCount[current] : 0) + dayCount[7 * left[current] + d - 1];
+				current = right[current];
+			}
+			else {
+				current = left[current];
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @param skip = slots to leave out (null for none)
+	 * @return the packed interval of every slot in the tree, sorted by beginDate
+	 */
+	private long[] inorder(BitSet skip) {
+		long[] intervals = new long[size];
+		int n = 0;
+		int[] stack = new int[MAX_HEIGHT];
+		int top = 0;
+		int current = root;
+		while(current != NIL || top > 0) {
+			while(current != NIL) {
+				stack[top++] = current;
+				current = left[current];
+			}
+			current = stack[--top];
+			if(skip == null || !skip.get(current)) intervals[n++] = packed(current);
+			current = right[current];
+		}
+		return n == intervals.length ? intervals : Arrays.copyOf(intervals, n);
+	}
+
+	private long packed(int slot) {
+		return PackedInterval.pack(begin[slot], end[slot], day[slot]);
+	}
+
+	// ************** building **********************
+
+	/**
+	 * Replaces the whole tree with a balanced tree of sorted[0..n-1]
+	 *
+	 * Slots are handed out in sorted order, so an inorder walk goes straight
+	 *   through the arrays.
+	 */
+	private void rebuild(long[] sorted, int n) {
+		allocate(n + 1);
+		root = NIL;
+		size = n;
+		used = n + 1;
+		free = NIL;
+		for(int x = 0; x < n; x++) {
+			setInterval(x + 1, PackedInterval.begin(sorted[x]), PackedInterval.end(sorted[x]), PackedInterval.day(sorted[x]));
+		}
+		// nodes on the bottom level are red if it isn't full, everything else is black
+		int redDepth = 31 - Integer.numberOfLeadingZeros(n);
+		root = build(1, n, NIL, 0, redDepth);
+	}
+
+	/**
+	 * Builds a balanced subtree out of slots low..high (middle one on top); O(N)
+	 *
+	 * @return the root slot of the subtree (NIL if low > high)
+	 */
+	private int build(int low, int high, int p, int depth, int redDepth) {
+		if(low > high) return NIL;
+		int mid = (low + high) >>> 1;
+		parent[mid] = p;
+		left[mid] = build(low, mid - 1, mid, depth + 1, redDepth);
+		right[mid] = build(mid + 1, high, mid, depth + 1, redDepth);
+		red.set(mid, depth == redDepth && depth > 0);
+		updateMax(mid);
+		updateCount(mid);
+		return mid;
+	}
+
+	// ************** slots **********************
+
+	/**
+	 * Makes fresh arrays with room for capacity slots (including NIL)
+	 */
+	private void allocate(int capacity) {
+		begin = new int[capacity];
+		end = new int[capacity];
+		day = new byte[capacity];
+		parent = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		max = new int[capacity];
+		dayMax = new int[7 * capacity];
+		valueCount = new int[capacity];
+		count = new long[capacity];
+		dayCount = new long[7 * capacity];
+		red.clear();
+		max[NIL] = NO_DAY;
+		Arrays.fill(dayMax, 0, 7, NO_DAY);
+	}
+
+	/**
+	 * Doubles the arrays
+	 */
+	private void grow() {
+		int capacity = 2 * begin.length;
+		begin = Arrays.copyOf(begin, capacity);
+		end = Arrays.copyOf(end, capacity);
+		day = Arrays.copyOf(day, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		max = Arrays.copyOf(max, capacity);
+		dayMax = Arrays.copyOf(dayMax, 7 * capacity);
+		valueCount = Arrays.copyOf(valueCount, capacity);
+		count = Arrays.copyOf(count, capacity);
+		dayCount = Arrays.copyOf(dayCount, 7 * capacity);
+	}
+
+	/**
+	 * @return a red slot holding [b, e] on day d with no children, off the free list if there is one
+	 */
+	private int newSlot(int b, int e, int d) {
+		int slot;
+		if(free != NIL) {
+			slot = free;
+			free = left[slot];
+		}
+		else {
+			if(used == begin.length) grow();
+			slot = used++;
+		}
+		setInterval(slot, b, e, d);
+		parent[slot] = left[slot] = right[slot] = NIL;
+		red.set(slot);
+		updateMax(slot);
+		updateCount(slot);
+		return slot;
+	}
+
+	private void setInterval(int slot, int b, int e, int d) {
+		begin[slot] = b;
+		end[slot] = e;
+		day[slot] = (byte) d;
+		valueCount[slot] = PackedInterval.countMeetings(b, e, d);
+	}
+
+	private void freeSlot(int slot) {
+		parent[slot] = right[slot] = NIL;
+		red.clear(slot);
+		left[slot] = free;
+		free = slot;
+	}
+
+	private boolean isRed(int slot) {
+		return red.get(slot);
+	}
+
+	// ************** augmentations **********************
+
+	/**
+	 * Recalculates the maxes from slot up until they stop changing
+	 *   (like MeetingIntervalNode.recalculateMax)
+	 */
+	private void recalculateMax(int slot) {
+		while(slot != NIL && updateMax(slot)) slot = parent[slot];
+	}
+
+	/**
+	 * Recalculates the counts from slot all the way up to the root
+	 */
+	private void recalculateCount(int slot) {
+		for(; slot != NIL; slot = parent[slot]) updateCount(slot);
+	}
+
+	/**
+	 * Recalculates max and dayMaxes of just this slot (NIL's are never written)
+	 *
+	 * @return whether any of them changed
+	 */
+	private boolean updateMax(int x) {
+		int l = left[x], r = right[x];
+		boolean isChanged = false;
+		int newMax = Math.max(end[x], Math.max(max[l], max[r]));
+		if(newMax != max[x]) {
+			max[x] = newMax;
+			isChanged = true;
+		}
+		int own = day[x] - 1;
+		for(int d = 0; d < 7; d++) {
+			int newDayMax = Math.max(d == own ? end[x] : NO_DAY, Math.max(dayMax[7 * l + d], dayMax[7 * r + d]));
+			if(newDayMax != dayMax[7 * x + d]) {
+				dayMax[7 * x + d] = newDayMax;
+				isChanged = true;
+			}
+		}
+		return isChanged;
+	}
+
+	/**
+	 * Recalculates count and dayCounts of just this slot
+	 */
+	private void updateCount(int x) {
+		int l = left[x], r = right[x];
+		count[x] = valueCount[x] + count[l] + count[r];
+		int own = day[x] - 1;
+		for(int d = 0; d < 7; d++) {
+			dayCount[7 * x + d] = (d == own ? valueCount[x] : 0) + dayCount[7 * l + d] + dayCount[7 * r + d];
+		}
+	}
+
+	private void copyAugmentations(int from, int to) {
+		max[to] = max[from];
+		count[to] = count[from];
+		System.arraycopy(dayMax, 7 * from, dayMax, 7 * to, 7);
+		System.arraycopy(dayCount, 7 * from, dayCount, 7 * to, 7);
+	}
+
+	// ************** rotations **********************
+
+	private void leftRotate(int x) {
+		int y = right[x];
+		right[x] = left[y];
+		if(left[y] != NIL) parent[left[y]] = x;
+		parent[y] = parent[x];
+		if(parent[x] == NIL) root = y;
+		else if(x == left[parent[x]]) left[parent[x]] = y;
+		else right[parent[x]] = y;
+		left[y] = x;
+		parent[x] = y;
+
+		// y's subtree has the same intervals x's had, so nothing above y changes
+		updateMax(x);
+		updateCount(x);
+		updateMax(y);
+		updateCount(y);
+	}
+
+	private void rightRotate(int x) {
+		int y = left[x];
+		left[x] = right[y];
+		if(right[y] != NIL) parent[right[y]] = x;
+		parent[y] = parent[x];
+		if(parent[x] == NIL) root = y;
+		else if(x == right[parent[x]]) right[parent[x]] = y;
+		else left[parent[x]] = y;
+		right[y] = x;
+		parent[x] = y;
+
+		// y's subtree has the same intervals x's had, so nothing above y changes
+		updateMax(x);
+		updateCount(x);
+		updateMax(y);
+		updateCount(y);
+	}
+}
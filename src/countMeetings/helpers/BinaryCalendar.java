@@ -0,0 +1,219 @@
+package countMeetings.helpers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary version of the csv calendar files
+ *
+ * We count the same calendars over and over, so it's worth converting them once
+ *   and loading the binary file from then on. Loading is just a couple of bulk
+ *   copies into IntervalColumns (no parsing).
+ *
+ * Layout (little endian)...
+ *   header (24 bytes)
+ *     int  magic          "MTGC"
+ *     int  version        1
+ *     int  meetingCount
+ *     int  vacationCount
+ *     long checksum       CRC32 of the body
+ *   body (columns, meetings first and then vacations)
+ *     int  begin[rows]    epoch day of the beginDate
+ *     int  endDay[rows]   (epoch day of the endDate << 3) | day of the week (0 = vacation)
+ *
+ * So every row is 8 bytes, compared to ~30 in the csv. A file has to fit in one
+ *   mapped buffer (2GB, about 268 million rows).
+ *
+ * @author Alex Lay
+ */
+public class BinaryCalendar {
+	static final int MAGIC = 0x4347544D; // "MTGC"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 24;
+
+	/**
+	 * Converts a csv file (in the format CSVReader.readMeetingsFull reads) to a binary calendar
+	 *
+	 * @param csvPath = the csv file to convert
+	 * @param binaryPath = where to write the binary calendar
+	 * @return whether the conversion worked
+	 */
+	public boolean convert(String csvPath, String binaryPath) {
+		IntervalColumns meetings = new IntervalColumns(1024);
+		IntervalColumns vacations = new IntervalColumns(16);
+		try {
+			new CSVScanner().scanFile(csvPath, interval -> {
+				if(interval.dayOfTheWeek == null)
+					vacations.add(interval);
+				else
+					meetings.add(interval);
+			});
+			write(binaryPath, meetings, vacations);
+			return true;
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * Writes meetings and vacations to a binary calendar
+	 *
+	 * @param binaryPath = where to write the binary calendar
+	 * @param meetings = the meetings
+	 * @param vacations = the vacations
+	 * @throws IOException if the file can't be written
+	 */
+	public void write(String binaryPath, IntervalColumns meetings, IntervalColumns vacations) throws IOException {
+		int rows = meetings.size() + vacations.size();
+		ByteBuffer body = ByteBuffer.allocate(rows * 8).order(ByteOrder.LITTLE_ENDIAN);
+		IntBuffer ints = body.asIntBuffer();
+		ints.put(meetings.getBegin(), 0, meetings.size());
+		ints.put(vacations.getBegin(), 0, vacations.size());
+		putEndDays(ints, meetings);
+		putEndDays(ints, vacations);
+
+		CRC32 checksum = new CRC32();
+		checksum.update(body.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(meetings.size()).putInt(vacations.size()).putLong(checksum.getValue());
+		header.flip();
+
+		try(FileChannel channel = FileChannel.open(Paths.get(binaryPath), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while(header.hasRemaining()) channel.write(header);
+			while(body.hasRemaining()) channel.write(body);
+		}
+	}
+
+	private void putEndDays(IntBuffer ints, IntervalColumns columns) {
+		int[] end = columns.getEnd();
+		byte[] day = columns.getDay();
+		for(int x = 0; x < columns.size(); x++) {
+			ints.put((end[x] << 3) | day[x]);
+		}
+	}
+
+	/**
+	 * Loads a binary calendar into columns
+	 *
+	 * @param binaryPath = the binary calendar
+	 * @return two IntervalColumns, one with meetings and the other with vacations/holidays
+	 * @throws IOException if the file can't be read or is corrupt
+	 */
+	public IntervalColumns[] readColumns(String binaryPath) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(binaryPath), StandardOpenOption.READ)) {
+			if(channel.size() < HEADER_SIZE) {
+				throw new IOException("Not a binary calendar file.");
+			}
+			MappedByteBuffer file = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			file.order(ByteOrder.LITTLE_ENDIAN);
+			if(file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+				throw new IOException("Not a binary calendar file.");
+			}
+			int meetingCount = file.getInt(8);
+			int vacationCount = file.getInt(12);
+			long expectedChecksum = file.getLong(16);
+			long rows = (long) meetingCount + vacationCount;
+			if(meetingCount < 0 || vacationCount < 0 || channel.size() != HEADER_SIZE + rows * 8) {
+				throw new IOException("Corrupt binary calendar file.");
+			}
+			if(channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Binary calendar file is too big to map.");
+			}
+
+			ByteBuffer body = file.position(HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 checksum = new CRC32();
+			checksum.update(body.duplicate());
+			if(checksum.getValue() != expectedChecksum) {
+				throw new IOException("Corrupt binary calendar file.");
+			}
+
+			IntBuffer ints = body.asIntBuffer();
+			IntervalColumns meetings = readSection(ints, meetingCount, (int) rows, 0);
+			IntervalColumns vacations = readSection(ints, vacationCount, (int) rows, meetingCount);
+			return new IntervalColumns[] { meetings, vacations };
+		}
+	}
+
+	/**
+	 * Copies one section (meetings or vacations) out of the body
+	 */
+	private IntervalColumns readSection(IntBuffer ints, int count, int rows, int offset) {
+		int[] begin = new int[count];
+		int[] end = new int[count];
+		byte[] day = new byte[count];
+		ints.position(offset);
+		ints.get(begin);
+		ints.position(rows + offset);
+		ints.get(end);
+		for(int x = 0; x < count; x++) {
+			day[x] = (byte) (end[x] & 7);
+			end[x] >>= 3;
+		}
+		return new IntervalColumns(begin, end, day, count);
+	}
+
+	/**
+	 * Same as CSVReader.readMeetingsFull but for a binary calendar
+	 *
+	 * @param binaryPath = the binary calendar
+	 * @return two arraylists, one with meetings and the other with vacations/holidays
+	 */
+	public List[] readMeetingsFull(String binaryPath) {
+		try {
+			IntervalColumns[] columns = readColumns(binaryPath);
+			return new List[] { columns[0].toMeetingIntervals(), columns[1].toMeetingIntervals() };
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return new List[] { new ArrayList<MeetingInterval>(), new ArrayList<MeetingInterval>() };
+	}
+
+	/**
+	 * Loads just the meeting columns of a binary calendar
+	 *
+	 * @param binaryPath = the binary calendar
+	 * @return the meetings, or null if the file couldn't be read (missing,
+	 *   truncated or failed its checksum)
+	 */
+	public IntervalColumns readMeetingColumns(String binaryPath) {
+		try {
+			return readColumns(binaryPath)[0];
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return null;
+	}
+}
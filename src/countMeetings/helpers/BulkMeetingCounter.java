@@ -0,0 +1,86 @@
+package countMeetings.helpers;
+
+/**
+ * Counts the meetings in columns of intervals (see IntervalColumns) in one tight loop
+ *
+ * PackedInterval.countMeetings has a branch for vacations, a branch for intervals
+ *   with no meetings and two divisions per row. This does the same arithmetic
+ *   with no branches at all...
+ *   - floorMod and / 7 are a multiply and a shift (DIV7_MAGIC), since every
+ *     number divided is positive and less than 2^31
+ *   - "no meetings" is a max with 0 instead of an if
+ *   - vacations (day 0) are masked out instead of skipped
+ * and runs four rows at a time into separate sums, so the JIT can keep the rows
+ *   independent and unroll/vectorize the loop.
+ *
+ * Epoch days have to be within the range PackedInterval allows (about 735,000
+ *   years of 1970).
+ *
+ * @author Alex Lay
+ */
+public final class BulkMeetingCounter {
+	// x / 7 == (x * DIV7_MAGIC) >>> DIV7_SHIFT for every 0 <= x < 2^31
+	private static final long DIV7_MAGIC = 0x92492493L;
+	private static final int DIV7_SHIFT = 34;
+	// a multiple of 7 that makes every epoch day positive (1970-01-01 + 3 is a Monday)
+	private static final int WEEK_OFFSET = 7 * (1 << 26) + 3;
+
+	private BulkMeetingCounter() {}
+
+	/**
+	 * @param columns = the intervals to count
+	 * @return the total number of meetings (vacations count as 0)
+	 */
+	public static long countMeetings(IntervalColumns columns) {
+		return countMeetings(columns.getBegin(), columns.getEnd(), columns.getDay(), 0, columns.size());
+	}
+
+	/**
+	 * Sums the meetings in rows from (inclusive) to to (exclusive)
+	 *
+	 * O(N) with no branches in the loop body and no allocation
+	 *
+	 * @param begin = the epoch day of each beginDate
+	 * @param end = the epoch day of each endDate
+	 * @param day = the ISO day of the week of each row (1 = Monday) or 0 for a vacation
+	 * @param from = the first row to count
+	 * @param to = one past the last row to count
+	 * @return the total number of meetings
+	 */
+	public static long countMeetings(int[] begin, int[] end, byte[] day, int from, int to) {
+		long sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int x = from;
+		for(; x + 3 < to; x += 4) {
+			sum0 += count(begin[x], end[x], day[x]);
+			sum1 += count(begin[x + 1], end[x + 1], day[x + 1]);
+			sum2 += count(begin[x + 2], end[x + 2], day[x + 2]);
+			sum3 += count(begin[x + 3], end[x + 3], day[x + 3]);
+		}
+		for(; x < to; x++) {
+			sum0 += count(begin[x], end[x], day[x]);
+		}
+		return sum0 + sum1 + sum2 + sum3;
+	}
+
+	/**
+	 * Branch-free version of PackedInterval.countMeetings(int, int, int)
+	 */
+	static int count(int beginEpochDay, int endEpochDay, int isoDay) {
+		// 0 = Monday ... 6 = Sunday
+		int beginDay = mod7(beginEpochDay + WEEK_OFFSET);
+		// days until the first meeting (isoDay - 1 - beginDay + 7 is between 0 and 13)
+		int first = beginEpochDay + mod7(isoDay + 6 - beginDay);
+		// (end - first) / 7 + 1, or 0 if the first meeting is after the end
+		int meetings = div7(Math.max(endEpochDay - first + 7, 0));
+		// -isoDay >> 31 is all ones for a meeting and 0 for a vacation
+		return meetings & (-isoDay >> 31);
+	}
+
+	static int div7(int x) {
+		return (int) ((x * DIV7_MAGIC) >>> DIV7_SHIFT);
+	}
+
+	static int mod7(int x) {
+		return x - 7 * div7(x);
+	}
+}
@@ -5,12 +5,19 @@ package countMeetings.helpers;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.time.DateTimeException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Reads the data from a csv and returns it.
@@ -21,11 +28,18 @@ import java.util.List;
  *         and reads vacations in the format beginDate, endDate, ["Vacation" | "Holiday]
  *         and returns both lists
  * 
+ * Both also have a "Mapped" version that reads the file through a CSVScanner
+ *   so the readers can be compared on big files.
+ * 
+ * Gzipped csv files (eg. meetings.csv.gz) are detected and decompressed as they are read.
+ * 
  * Resources used: https://stackabuse.com/reading-and-writing-csvs-in-java/
  * 
  * @author Alex Lay
  */
 public class CSVReader {
+	private static final int BUFFER_SIZE = 1 << 16;
+	
 	/**
 	 * Stores the Date information contained in the given csv file
 	 *   in MeetingInterval objects. Input must be in the format
@@ -39,15 +53,16 @@ public class CSVReader {
 		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
 		
 		try {
-			File csvFile = new File(csvPath);
-			BufferedReader csvReader = new BufferedReader(new FileReader(csvFile));
+			BufferedReader csvReader = openReader(csvPath);
 			String row;
+			int rowNumber = 0;
 			while ((row = csvReader.readLine()) != null) {
+				rowNumber++;
 			    String[] data = row.split(",");
 			    if(data.length != 3) {
-			    	throw new IOException("Invalid input file format.");
+			    	throw new IOException("Invalid input file format on row " + rowNumber + ".");
 			    }
-			    meetings.add(new MeetingInterval(sanitizeDate(data[0]), sanitizeDate(data[1]), data[2]));
+			    meetings.add(parseRow(data, rowNumber, false));
 			}
 			csvReader.close();
 		}
@@ -81,19 +96,20 @@ public class CSVReader {
 		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
 		
 		try {
-			File csvFile = new File(csvPath);
-			BufferedReader csvReader = new BufferedReader(new FileReader(csvFile));
+			BufferedReader csvReader = openReader(csvPath);
 			String row;
+			int rowNumber = 0;
 			while ((row = csvReader.readLine()) != null) {
+				rowNumber++;
 			    String[] data = row.split(",");
 			    if(data.length != 3) {
-			    	throw new IOException("Invalid input file format.");
+			    	throw new IOException("Invalid input file format on row " + rowNumber + ".");
 			    }
 			    if(data[2].toLowerCase().equals("holiday") || data[2].toLowerCase().equals("vacation")) {
-			    	vacations.add(new MeetingInterval(sanitizeDate(data[0]), sanitizeDate(data[1])));
+			    	vacations.add(parseRow(data, rowNumber, true));
 			    }
 			    else {
-			    	meetings.add(new MeetingInterval(sanitizeDate(data[0]), sanitizeDate(data[1]), data[2]));
+			    	meetings.add(parseRow(data, rowNumber, false));
 			    }
 			}
 			csvReader.close();
@@ -112,13 +128,154 @@ public class CSVReader {
 	}
 	
 	/**
-	 * Regex to remove non-integers and non-hyphens from a given string
+	 * Opens the csv file for reading
+	 * If the file is gzipped, it is decompressed while it is read instead of
+	 *   having to be decompressed to disk first.
+	 * 
+	 * @param csvPath is the path to a csv file (can be gzipped)
+	 * @return a reader over the (decompressed) csv
+	 * @throws IOException if the file can't be opened
+	 */
+	private BufferedReader openReader(String csvPath) throws IOException {
+		File csvFile = new File(csvPath);
+		if(!CSVScanner.isCompressed(csvPath)) {
+			return new BufferedReader(new FileReader(csvFile), BUFFER_SIZE);
+		}
+		InputStream in = new GZIPInputStream(new FileInputStream(csvFile), BUFFER_SIZE);
+		return new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()), BUFFER_SIZE);
+	}
+	
+	/**
+	 * Turns the columns of a row into a MeetingInterval
+	 * 
+	 * @param data = the columns of the row
+	 * @param rowNumber = the row's line number in the csv (for error messages)
+	 * @param isVacation = whether the row is a vacation/holiday
+	 * @return the meeting or vacation in the row
+	 * @throws IOException if a date or the day of the week is malformed
+	 */
+	private MeetingInterval parseRow(String[] data, int rowNumber, boolean isVacation) throws IOException {
+		try {
+			if(isVacation)
+				return new MeetingInterval(sanitizeDate(data[0]), sanitizeDate(data[1]));
+			return new MeetingInterval(sanitizeDate(data[0]), sanitizeDate(data[1]), data[2]);
+		}
+		catch(DateTimeException e) {
+			throw new IOException("Invalid input file format on row " + rowNumber + ": " + e.getMessage() + ".");
+		}
+	}
+	
+	/**
+	 * Same as readMeetingsBasic, but memory-maps the file and scans the bytes
+	 *   directly with a CSVScanner instead of creating Strings for every row.
+	 * Use this for big files.
+	 * 
+	 * @param csvPath is the path to a csv file
+	 * @return a list of MeetingInterval objects
+	 */
+	public List<MeetingInterval> readMeetingsBasicMapped(String csvPath) {
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		CSVScanner scanner = new CSVScanner();
+		
+		try {
+			scanner.scanFile(csvPath, interval -> {
+				if(interval.dayOfTheWeek == null) {
+					throw new IOException("Invalid input file format on row " + scanner.getRow() + ".");
+				}
+				meetings.add(interval);
+			});
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return meetings;
+	}
+	
+	/**
+	 * Same as readMeetingsFull, but memory-maps the file and scans the bytes
+	 *   directly with a CSVScanner instead of creating Strings for every row.
+	 * Use this for big files.
+	 * 
+	 * @param csvPath is the path to a csv file containing meeting information
+	 * @return two arraylists, one with meetings and the other with vacations/holidays
+	 */
+	public List[] readMeetingsFullMapped(String csvPath) {
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+		
+		try {
+			new CSVScanner().scanFile(csvPath, interval -> {
+				if(interval.dayOfTheWeek == null)
+					vacations.add(interval);
+				else
+					meetings.add(interval);
+			});
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		
+		return new List[] { meetings, vacations };
+	}
+	
+	/**
+	 * Streams every row of the csv file to handler without building a list,
+	 *   so memory stays flat no matter how big the file is.
+	 * 
+	 * @param csvPath is the path to a csv file
+	 * @param handler receives every row as it is scanned
+	 * @return true if the whole file was read, false if it stopped early
+	 */
+	public boolean streamMeetings(String csvPath, CSVScanner.RowHandler handler) {
+		try {
+			new CSVScanner().scanFile(csvPath, handler);
+			return true;
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return false;
+	}
+	
+	/**
+	 * Removes non-integers and non-hyphens from a given string
 	 * My CSV files were giving me weird special characters so I needed to remove them...
 	 * 
+	 * This used to be a regex, but it ran on every field of every row. Now it
+	 *   returns the same string when there is nothing to remove.
+	 * 
 	 * @param date is the date to be sanitized
 	 * @return a date of format 2018-05-02
 	 */
 	public String sanitizeDate(String date) {
-		return date.replaceAll("[^0-9._-]", "");
+		int x = 0;
+		while(x < date.length() && isDateChar(date.charAt(x))) x++;
+		if(x == date.length()) return date;
+		
+		StringBuilder sanitized = new StringBuilder(date.length());
+		sanitized.append(date, 0, x);
+		for(; x < date.length(); x++) {
+			if(isDateChar(date.charAt(x))) sanitized.append(date.charAt(x));
+		}
+		return sanitized.toString();
+	}
+	
+	private boolean isDateChar(char c) {
+		return (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '-';
 	}
 }
@@ -0,0 +1,350 @@
+package countMeetings.helpers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Scans the raw bytes of a csv file for meeting rows.
+ *
+ * Instead of going through BufferedReader.readLine and String.split like CSVReader,
+ *   this memory-maps the file with FileChannel.map and walks the bytes directly.
+ *   The only object created per row is the MeetingInterval (dates come from the
+ *   DateParser's cache).
+ *
+ * Rows are in the same format CSVReader reads:
+ *   beginDate, endDate, dayOfTheWeek
+ *   beginDate, endDate, ["Vacation" | "Holiday"]
+ * Vacations are handed to the RowHandler as intervals without a dayOfTheWeek.
+ *
+ * A mapped buffer can only hold 2GB, so large files are mapped in windows that
+ *   always end on a newline. Gzipped files can't be mapped, so they are
+ *   decompressed on the fly and streamed through a reusable buffer instead.
+ *
+ * @author Alex Lay
+ */
+public class CSVScanner {
+	// how much of the file is mapped at once
+	static final int MAP_WINDOW = 1 << 30;
+	// compressed files are streamed through a buffer this big
+	static final int STREAM_BUFFER = 1 << 20;
+	static final int GZIP_BUFFER = 1 << 16;
+
+	private static final byte[] VACATION = "vacation".getBytes();
+	private static final byte[] HOLIDAY = "holiday".getBytes();
+
+	/**
+	 * Receives every row the scanner parses
+	 */
+	public interface RowHandler {
+		/**
+		 * @param interval = the parsed row (dayOfTheWeek is null for vacations)
+		 * @throws IOException if the handler can't accept the row
+		 */
+		void handleRow(MeetingInterval interval) throws IOException;
+	}
+
+	/**
+	 * Receives the rows the scanner couldn't parse or the RowHandler wouldn't take
+	 *   (an IOException from handleRow, eg. a vacation in a basic file)
+	 * Without one, the first malformed row stops the scan with an IOException
+	 */
+	public interface RejectHandler {
+		/**
+		 * @param row = the row number of the malformed row
+		 * @param buffer = the bytes of the csv file
+		 * @param from = the start of the row
+		 * @param to = the end of the row (without its line terminator)
+		 * @param reason = what is wrong with the row
+		 * @throws IOException if the row can't be recorded
+		 */
+		void rejectRow(long row, ByteBuffer buffer, int from, int to, String reason) throws IOException;
+	}
+
+	private long row; // number of rows scanned so far
+	private final DateParser dateParser;
+	private byte[] streamBuffer; // reused by every scanStream call
+	private RejectHandler rejectHandler;
+
+	public CSVScanner() {
+		this(0);
+	}
+
+	/**
+	 * @param startRow = the number of rows before the first row this will scan
+	 *   (eg. when resuming in the middle of a file)
+	 */
+	public CSVScanner(long startRow) {
+		row = startRow;
+		dateParser = new DateParser();
+		streamBuffer = null;
+		rejectHandler = null;
+	}
+
+	/**
+	 * @param rejectHandler = receives malformed rows instead of the scan stopping
+	 */
+	public void setRejectHandler(RejectHandler rejectHandler) {
+		this.rejectHandler = rejectHandler;
+	}
+
+	public long getRow() {
+		return row;
+	}
+
+	/**
+	 * Memory-maps the whole csv file and scans every row in it
+	 *
+	 * O(N) where N is the size of the file in bytes
+	 *
+	 * @param csvPath = the path to the csv file
+	 * @param handler = receives every row
+	 * @throws IOException if the file can't be read or a row is malformed
+	 */
+	public void scanFile(String csvPath, RowHandler handler) throws IOException {
+		if(isCompressed(csvPath)) {
+			try(InputStream in = new GZIPInputStream(new FileInputStream(csvPath), GZIP_BUFFER)) {
+				scanStream(in, handler);
+			}
+			return;
+		}
+		try(FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while(position < size) {
+				long length = Math.min(size - position, MAP_WINDOW);
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, length);
+				int end = windowEnd(buffer, (int) length, position + length == size);
+				int begin = position == 0 ? skipBOM(buffer, 0, end) : 0;
+				scan(buffer, begin, end, handler);
+				position += end;
+			}
+		}
+	}
+
+	/**
+	 * Scans every row in a stream (eg. a GZIPInputStream)
+	 *
+	 * The stream is read into a buffer that is reused between calls. Only whole rows
+	 *   are scanned; a partial row at the end of the buffer is moved to the front
+	 *   and finished by the next read.
+	 *
+	 * @param in = the csv bytes
+	 * @param handler = receives every row
+	 * @throws IOException if the stream can't be read or a row is malformed
+	 */
+	public void scanStream(InputStream in, RowHandler handler) throws IOException {
+		if(streamBuffer == null) {
+			streamBuffer = new byte[STREAM_BUFFER];
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(streamBuffer);
+		int filled = 0;
+		boolean isFirst = true;
+		while(true) {
+			int read = in.read(streamBuffer, filled, streamBuffer.length - filled);
+			if(read < 0) break;
+			filled += read;
+			if(filled < streamBuffer.length) continue;
+
+			int from = isFirst ? skipBOM(buffer, 0, filled) : 0;
+			int end = lastNewline(buffer, from, filled) + 1;
+			if(end == 0) {
+				// one row is bigger than the buffer
+				streamBuffer = Arrays.copyOf(streamBuffer, streamBuffer.length * 2);
+				buffer = ByteBuffer.wrap(streamBuffer);
+				continue;
+			}
+			scan(buffer, from, end, handler);
+			System.arraycopy(streamBuffer, end, streamBuffer, 0, filled - end);
+			filled -= end;
+			isFirst = false;
+		}
+		int from = isFirst ? skipBOM(buffer, 0, filled) : 0;
+		scan(buffer, from, filled, handler);
+	}
+
+	/**
+	 * Gzipped files start with the bytes 1F 8B
+	 *
+	 * @param csvPath = the path to the csv file
+	 * @return whether the file is gzipped
+	 * @throws IOException if the file can't be read
+	 */
+	public static boolean isCompressed(String csvPath) throws IOException {
+		try(InputStream in = new FileInputStream(csvPath)) {
+			return in.read() == 0x1F && in.read() == 0x8B;
+		}
+	}
+
+	/**
+	 * Scans all of the rows in buffer between from (inclusive) and to (exclusive)
+	 * from should be the start of a row and to should be the end of one
+	 *
+	 * @param buffer = the bytes of the csv file
+	 * @param from = the index of the first byte to scan
+	 * @param to = the index after the last byte to scan
+	 * @param handler = receives every row
+	 * @throws IOException if a row is malformed
+	 */
+	public void scan(ByteBuffer buffer, int from, int to, RowHandler handler) throws IOException {
+		int position = from;
+		while(position < to) {
+			int lineEnd = position;
+			while(lineEnd < to && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int contentEnd = lineEnd;
+			if(contentEnd > position && buffer.get(contentEnd - 1) == '\r') {
+				contentEnd--;
+			}
+			row++;
+			try {
+				handler.handleRow(parseRow(buffer, position, contentEnd));
+			}
+			catch(IOException e) {
+				if(rejectHandler == null) throw e;
+				rejectHandler.rejectRow(row, buffer, position, contentEnd, e.getMessage());
+			}
+			position = lineEnd + 1;
+		}
+	}
+
+	/**
+	 * Parses one row (without its line terminator) into a MeetingInterval
+	 *
+	 * @param buffer = the bytes of the csv file
+	 * @param from = the start of the row
+	 * @param to = the end of the row
+	 * @return the meeting or vacation in the row
+	 * @throws IOException if the row is malformed
+	 */
+	MeetingInterval parseRow(ByteBuffer buffer, int from, int to) throws IOException {
+		int firstComma = indexOf(buffer, (byte) ',', from, to);
+		if(firstComma < 0) throw invalidRow();
+		int secondComma = indexOf(buffer, (byte) ',', firstComma + 1, to);
+		if(secondComma < 0 || indexOf(buffer, (byte) ',', secondComma + 1, to) >= 0) {
+			throw invalidRow();
+		}
+		LocalDate begin = parseDate(buffer, from, firstComma);
+		LocalDate end = parseDate(buffer, firstComma + 1, secondComma);
+
+		// trim the last column
+		int dayBegin = secondComma + 1, dayEnd = to;
+		while(dayBegin < dayEnd && isBlank(buffer.get(dayBegin))) dayBegin++;
+		while(dayEnd > dayBegin && isBlank(buffer.get(dayEnd - 1))) dayEnd--;
+		if(dayBegin == dayEnd) {
+			throw invalidRow();
+		}
+
+		if(equalsIgnoreCase(buffer, dayBegin, dayEnd, VACATION) || equalsIgnoreCase(buffer, dayBegin, dayEnd, HOLIDAY)) {
+			return new MeetingInterval(begin, end, null);
+		}
+		DayOfWeek day = DayOfWeekLookup.lookup(buffer, dayBegin, dayEnd);
+		if(day == null) {
+			throw new IOException("Invalid day of the week '" + text(buffer, dayBegin, dayEnd) + "' on row " + row + ".");
+		}
+		return new MeetingInterval(begin, end, day);
+	}
+
+	/**
+	 * Parses a date of the format 2018-05-02 (surrounding blanks are ignored)
+	 *
+	 * @return the parsed date
+	 * @throws IOException if the date is malformed
+	 */
+	private LocalDate parseDate(ByteBuffer buffer, int from, int to) throws IOException {
+		while(from < to && isBlank(buffer.get(from))) from++;
+		while(to > from && isBlank(buffer.get(to - 1))) to--;
+		try {
+			return dateParser.parseDate(buffer, from, to);
+		}
+		catch(DateTimeException e) {
+			throw new IOException("Invalid input file format on row " + row + ": " + e.getMessage() + ".");
+		}
+	}
+
+	private IOException invalidRow() {
+		return new IOException("Invalid input file format on row " + row + ".");
+	}
+
+	/**
+	 * Finds where a mapped window should stop so that it ends on a full row
+	 *
+	 * @param buffer = the mapped window
+	 * @param length = the length of the window
+	 * @param isLast = whether the window reaches the end of the file
+	 * @return the index after the last newline (or length if isLast)
+	 * @throws IOException if a single row doesn't fit in the window
+	 */
+	static int windowEnd(ByteBuffer buffer, int length, boolean isLast) throws IOException {
+		if(isLast) return length;
+		int end = lastNewline(buffer, 0, length) + 1;
+		if(end == 0) {
+			throw new IOException("Invalid input file format.");
+		}
+		return end;
+	}
+
+	/**
+	 * My CSV files start with a UTF-8 byte order mark (EF BB BF)
+	 *
+	 * @return the index of the first byte after the BOM
+	 */
+	static int skipBOM(ByteBuffer buffer, int from, int to) {
+		if(to - from >= 3 && buffer.get(from) == (byte) 0xEF
+				&& buffer.get(from + 1) == (byte) 0xBB && buffer.get(from + 2) == (byte) 0xBF) {
+			return from + 3;
+		}
+		return from;
+	}
+
+	private static int lastNewline(ByteBuffer buffer, int from, int to) {
+		for(int x = to - 1; x >= from; x--) {
+			if(buffer.get(x) == '\n') return x;
+		}
+		return -1;
+	}
+
+	static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+		for(int x = from; x < to; x++) {
+			if(buffer.get(x) == b) return x;
+		}
+		return -1;
+	}
+
+	// only used for error messages
+	private static String text(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for(int x = from; x < to; x++) {
+			bytes[x - from] = buffer.get(x);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	/**
+	 * Compares bytes to a lowercase ascii word, ignoring case
+	 */
+	private static boolean equalsIgnoreCase(ByteBuffer buffer, int from, int to, byte[] word) {
+		if(to - from != word.length) return false;
+		for(int x = 0; x < word.length; x++) {
+			if((buffer.get(from + x) | 0x20) != word[x]) return false;
+		}
+		return true;
+	}
+}
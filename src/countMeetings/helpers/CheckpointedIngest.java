@@ -0,0 +1,313 @@
+package countMeetings.helpers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Reads a very large csv file so that a bad row or a crash never means starting over
+ *
+ * The file is read in windows of checkpointInterval bytes. After every window a
+ *   checkpoint is saved next to the csv:
+ *     meetings.csv.checkpoint              the byte offset, row number and partial count
+ *     meetings.csv.checkpoint-OFFSET.bin   the running state (BinaryCalendar format)
+ * Running again picks up from the last checkpoint. Once the whole file is read
+ *   the checkpoint files are deleted.
+ *
+ * Malformed rows don't stop the ingest. They are written to meetings.csv.rejected
+ *   (as "row: reason: the row") and skipped.
+ *
+ * Gzipped files can't be resumed by byte offset, so they aren't supported here.
+ *
+ * @author Alex Lay
+ */
+public class CheckpointedIngest {
+	static final long DEFAULT_CHECKPOINT_INTERVAL = 64 << 20;
+	private static final String BASIC = "basic", FULL = "full";
+
+	private final Path csvPath;
+	private final Path checkpointPath;
+	private final Path rejectedPath;
+	private final long checkpointInterval;
+
+	// where the last checkpoint left off
+	private long offset;
+	private long row;
+	private long count;
+	private long rejected;
+	private long rejectedBytes;
+	private Path statePath;
+
+	/**
+	 * The result of ingesting a full csv file
+	 *   tree = every meeting (merged where they overlap)
+	 *   vacations = every vacation (not applied to the tree yet)
+	 */
+	public static class FullState {
+		private final MeetingIntervalTree tree;
+		private final List<MeetingInterval> vacations;
+
+		FullState(MeetingIntervalTree tree, List<MeetingInterval> vacations) {
+			this.tree = tree;
+			this.vacations = vacations;
+		}
+
+		public MeetingIntervalTree getTree() {
+			return tree;
+		}
+
+		public List<MeetingInterval> getVacations() {
+			return vacations;
+		}
+	}
+
+	public CheckpointedIngest(String csvPath) {
+		this(csvPath, DEFAULT_CHECKPOINT_INTERVAL);
+	}
+
+	/**
+	 * @param csvPath = the csv file to read
+	 * @param checkpointInterval = how many bytes to read between checkpoints
+	 */
+	public CheckpointedIngest(String csvPath, long checkpointInterval) {
+		this.csvPath = Paths.get(csvPath);
+		this.checkpointPath = Paths.get(csvPath + ".checkpoint");
+		this.rejectedPath = Paths.get(csvPath + ".rejected");
+		this.checkpointInterval = Math.max(1, Math.min(checkpointInterval, CSVScanner.MAP_WINDOW));
+	}
+
+	/**
+	 * Counts the meetings in a basic csv file (like CountMeetingsMVP), resuming
+	 *   from the last checkpoint if there is one
+	 *
+	 * @return the total number of meetings in the rows that weren't rejected
+	 * @throws IOException if the file can't be read (run again to resume)
+	 */
+	public long countMeetingsBasic() throws IOException {
+		loadCheckpoint(BASIC);
+		MeetingCounter counter = new MeetingCounter();
+		ingest(BASIC, counter, interval -> {
+			if(interval.dayOfTheWeek == null) {
+				throw new IOException("Vacations aren't allowed in a basic file");
+			}
+			counter.handleRow(interval);
+		}, null, null);
+		return count;
+	}
+
+	/**
+	 * Reads a full csv file (like CountMeetingsFull), resuming from the last
+	 *   checkpoint if there is one
+	 *
+	 * @return the meetings tree and the vacations
+	 * @throws IOException if the file can't be read (run again to resume)
+	 */
+	public FullState ingestFull() throws IOException {
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+		if(loadCheckpoint(FULL) && statePath != null) {
+			IntervalColumns[] state = new BinaryCalendar().readColumns(statePath.toString());
+			tree.insertList(state[0].toMeetingIntervals());
+			vacations.addAll(state[1].toMeetingIntervals());
+		}
+		ingest(FULL, null, interval -> {
+			if(interval.dayOfTheWeek == null)
+				vacations.add(interval);
+			else
+				tree.insert(interval);
+		}, tree, vacations);
+		return new FullState(tree, vacations);
+	}
+
+	/**
+	 * Reads the file from offset to the end, saving a checkpoint after every window
+	 */
+	private void ingest(String mode, MeetingCounter counter, CSVScanner.RowHandler handler,
+			MeetingIntervalTree tree, List<MeetingInterval> vacations) throws IOException {
+		if(CSVScanner.isCompressed(csvPath.toString())) {
+			throw new IOException("Can't checkpoint a compressed file.");
+		}
+		truncateRejected();
+		try(FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ);
+				OutputStream rejectedOut = new BufferedOutputStream(Files.newOutputStream(rejectedPath,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+			long size = channel.size();
+			long startCount = count;
+			CSVScanner scanner = new CSVScanner(row);
+			CSVScanner.RejectHandler rejectHandler = (rejectedRow, buffer, from, to, reason) -> {
+				rejectedBytes += writeRejected(rejectedOut, rejectedRow, buffer, from, to, reason);
+				rejected++;
+			};
+			// rows the handler won't take (eg. vacations in a basic file) are rejected too
+			scanner.setRejectHandler(rejectHandler);
+
+			while(offset < size) {
+				long length = Math.min(size - offset, checkpointInterval);
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, length);
+				int end = CSVScanner.windowEnd(buffer, (int) length, offset + length == size);
+				int begin = offset == 0 ? CSVScanner.skipBOM(buffer, 0, end) : 0;
+				scanner.scan(buffer, begin, end, handler);
+
+				offset += end;
+				row = scanner.getRow();
+				if(counter != null) {
+					count = startCount + counter.getTotal();
+				}
+				rejectedOut.flush();
+				if(offset < size) {
+					saveCheckpoint(mode, tree, vacations);
+				}
+			}
+		}
+		clearCheckpoint();
+		if(rejected == 0) {
+			Files.deleteIfExists(rejectedPath);
+		}
+	}
+
+	/**
+	 * Writes "row: reason: the row" to the rejected file
+	 *
+	 * @return the number of bytes written
+	 */
+	private long writeRejected(OutputStream out, long rejectedRow, ByteBuffer buffer, int from, int to,
+			String reason) throws IOException {
+		byte[] prefix = (rejectedRow + ": " + reason + ": ").getBytes(StandardCharsets.UTF_8);
+		out.write(prefix);
+		for(int x = from; x < to; x++) {
+			out.write(buffer.get(x));
+		}
+		out.write('\n');
+		return prefix.length + (to - from) + 1;
+	}
+
+	/**
+	 * Rows rejected after the last checkpoint will be rejected again when the
+	 *   window is read again, so they are cut off the rejected file
+	 */
+	private void truncateRejected() throws IOException {
+		if(!Files.exists(rejectedPath)) return;
+		try(FileChannel channel = FileChannel.open(rejectedPath, StandardOpenOption.WRITE)) {
+			channel.truncate(rejectedBytes);
+		}
+	}
+
+	/**
+	 * Saves the state first and then points the checkpoint at it, so a crash in
+	 *   the middle of saving leaves the last checkpoint untouched
+	 */
+	private void saveCheckpoint(String mode, MeetingIntervalTree tree, List<MeetingInterval> vacations) throws IOException {
+		Path oldStatePath = statePath;
+		if(tree != null) {
+			IntervalColumns meetingColumns = new IntervalColumns();
+			for(MeetingInterval meeting : tree.toList()) meetingColumns.add(meeting);
+			IntervalColumns vacationColumns = new IntervalColumns();
+			for(MeetingInterval vacation : vacations) vacationColumns.add(vacation);
+
+			statePath = Paths.get(checkpointPath + "-" + offset + ".bin");
+			Path tempStatePath = Paths.get(statePath + ".tmp");
+			new BinaryCalendar().write(tempStatePath.toString(), meetingColumns, vacationColumns);
+			Files.move(tempStatePath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("mode", mode);
+		checkpoint.setProperty("offset", Long.toString(offset));
+		checkpoint.setProperty("row", Long.toString(row));
+		checkpoint.setProperty("count", Long.toString(count));
+		checkpoint.setProperty("rejected", Long.toString(rejected));
+		checkpoint.setProperty("rejectedBytes", Long.toString(rejectedBytes));
+		if(statePath != null) {
+			checkpoint.setProperty("state", statePath.getFileName().toString());
+		}
+		Path tempCheckpointPath = Paths.get(checkpointPath + ".tmp");
+		try(OutputStream out = Files.newOutputStream(tempCheckpointPath)) {
+			checkpoint.store(out, "checkpoint for " + csvPath.getFileName());
+		}
+		Files.move(tempCheckpointPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		if(oldStatePath != null && !oldStatePath.equals(statePath)) {
+			Files.deleteIfExists(oldStatePath);
+		}
+	}
+
+	/**
+	 * Loads the last checkpoint (if there is one for this mode)
+	 *
+	 * @return whether a checkpoint was loaded
+	 */
+	private boolean loadCheckpoint(String mode) throws IOException {
+		offset = row = count = rejected = rejectedBytes = 0;
+		statePath = null;
+		if(!Files.exists(checkpointPath)) {
+			Files.deleteIfExists(rejectedPath);
+			return false;
+		}
+
+		Properties checkpoint = new Properties();
+		try(InputStream in = Files.newInputStream(checkpointPath)) {
+			checkpoint.load(in);
+		}
+		// read first so starting over deletes the old state file too
+		if(checkpoint.getProperty("state") != null) {
+			statePath = checkpointPath.resolveSibling(checkpoint.getProperty("state"));
+		}
+		long checkpointOffset = Long.parseLong(checkpoint.getProperty("offset", "0"));
+		if(!mode.equals(checkpoint.getProperty("mode")) || checkpointOffset > Files.size(csvPath)) {
+			// the checkpoint isn't for this ingest, so start over
+			clearCheckpoint();
+			statePath = null;
+			Files.deleteIfExists(rejectedPath);
+			return false;
+		}
+		offset = checkpointOffset;
+		row = Long.parseLong(checkpoint.getProperty("row", "0"));
+		count = Long.parseLong(checkpoint.getProperty("count", "0"));
+		rejected = Long.parseLong(checkpoint.getProperty("rejected", "0"));
+		rejectedBytes = Long.parseLong(checkpoint.getProperty("rejectedBytes", "0"));
+		return true;
+	}
+
+	/**
+	 * Deletes the checkpoint so the next run starts from the beginning
+	 *
+	 * @throws IOException if the checkpoint files can't be deleted
+	 */
+	public void clearCheckpoint() throws IOException {
+		if(statePath != null) {
+			Files.deleteIfExists(statePath);
+		}
+		Files.deleteIfExists(checkpointPath);
+	}
+
+	// ************** get functions **********************
+
+	/**
+	 * @return the number of rows written to the rejected file
+	 */
+	public long getRejectedRows() {
+		return rejected;
+	}
+
+	public String getRejectedPath() {
+		return rejectedPath.toString();
+	}
+
+	public String getCheckpointPath() {
+		return checkpointPath.toString();
+	}
+}
@@ -0,0 +1,288 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A MeetingIntervalTree that can be read from many threads while another
+ *   thread updates it
+ *
+ * Updates (insert, removeAllOverlaps, vacations) take the write lock of a
+ *   StampedLock. Reads (findOverlap, haveMeeting and the counts) first try an
+ *   optimistic read: they walk the tree with no lock at all and then check that
+ *   no update started in the meantime. Only if one did do they walk it again
+ *   under the read lock. With mostly reads that means reads never block each
+ *   other or write to shared memory.
+ *
+ * An optimistic walk can see a tree that's halfway through a rotation, so it
+ *   only reads fields into locals, gives up after more steps than the tree can
+ *   be tall, and treats any exception as "try again with the lock". Nothing it
+ *   reads is used until the stamp has been validated.
+ *
+ * @author Alex Lay
+ */
+public class ConcurrentMeetingIntervalTree implements MeetingIndex {
+	// a Red-Black tree with fewer than 2^31 nodes is at most 62 levels deep, so a longer walk saw a broken tree
+	private static final int MAX_STEPS = 64;
+
+	private final MeetingIntervalTree tree;
+	private final StampedLock lock = new StampedLock();
+
+	public ConcurrentMeetingIntervalTree() {
+		this(new MeetingIntervalTree());
+	}
+
+	/**
+	 * @param tree = the tree to guard (nothing else should use it afterwards)
+	 */
+	public ConcurrentMeetingIntervalTree(MeetingIntervalTree tree) {
+		this.tree = tree;
+	}
+
+	// ************** writes **********************
+
+	@Override
+	public void insert(MeetingInterval m) {
+		long stamp = lock.writeLock();
+		try {
+			tree.insert(m);
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Inserts the whole list under one write lock
+	 */
+	@Override
+	public void insertList(List<MeetingInterval> meetings) {
+		long stamp = lock.writeLock();
+		try {
+			tree.insertList(meetings);
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		long stamp = lock.writeLock();
+		try {
+			tree.removeVacation(vacation);
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes every vacation under one write lock, so readers never see only some of them applied
+	 */
+	@Override
+	public void removeVacations(List<MeetingInterval> vacations) {
+		long stamp = lock.writeLock();
+		try {
+			tree.removeVacations(vacations);
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * See MeetingIntervalTree.removeAllOverlaps
+	 */
+	public List<MeetingInterval> removeAllOverlaps(MeetingInterval value) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.removeAllOverlaps(value);
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	// ************** reads **********************
+
+	/**
+	 * O(1)
+	 */
+	@Override
+	public long countMeetings() {
+		return read(() -> {
+			MeetingIntervalNode root = tree.getRoot();
+			return root == null ? 0 : root.meetingCount;
+		}, tree::countMeetings);
+	}
+
+	/**
+	 * O(logN); see MeetingIntervalTree.countMeetings(LocalDate, LocalDate)
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		return read(() -> countMeetings(tree.getRoot(), from, to, PackedInterval.VACATION),
+				() -> tree.countMeetings(from, to));
+	}
+
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return read(() -> countMeetings(tree.getRoot(), from, to, day.getValue()),
+				() -> tree.countMeetings(from, to, day));
+	}
+
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		int epochDay = (int) date.toEpochDay();
+		int day = date.getDayOfWeek().getValue();
+		return read(() -> findOverlap(tree.getRoot(), epochDay, epochDay, day) == null ? 0 : 1,
+				() -> tree.haveMeeting(date) ? 1 : 0) == 1;
+	}
+
+	/**
+	 * O(logN)
+	 *
+	 * @param value = the value to find what overlaps with it
+	 * @return an interval in the tree that overlaps with value (null if there isn't one)
+	 */
+	public MeetingInterval findOverlap(MeetingInterval value) {
+		int begin = PackedInterval.begin(value.packed), end = PackedInterval.end(value.packed);
+		int day = PackedInterval.day(value.packed);
+		return readObject(() -> {
+			MeetingIntervalNode node = findOverlap(tree.getRoot(), begin, end, day);
+			return node == null ? null : node.value;
+		}, () -> {
+			MeetingIntervalNode node = tree.findOverlap(tree.getRoot(), value);
+			return node == null ? null : node.value;
+		});
+	}
+
+	/**
+	 * Tries optimistic first and then locked if an update got in the way
+	 */
+	private long read(LongSupplier optimistic, LongSupplier locked) {
+		long stamp = lock.tryOptimisticRead();
+		if(stamp != 0) {
+			try {
+				long result = optimistic.getAsLong();
+				if(lock.validate(stamp)) return result;
+			}
+			catch(RuntimeException e) {
+				// saw an update halfway through; the locked read below gets it right
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			return locked.getAsLong();
+		}
+		finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Same as read, for reads that don't return a number
+	 */
+	private <T> T readObject(Supplier<T> optimistic, Supplier<T> locked) {
+		long stamp = lock.tryOptimisticRead();
+		if(stamp != 0) {
+			try {
+				T result = optimistic.get();
+				if(lock.validate(stamp)) return result;
+			}
+			catch(RuntimeException e) {
+				// saw an update halfway through; the locked read below gets it right
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			return locked.get();
+		}
+		finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// ************** optimistic walks **********************
+	// these read the nodes directly and never take more than MAX_STEPS steps
+
+	/**
+	 * Same as MeetingIntervalTree.findOverlap
+	 *
+	 * @param day = the ISO day of the week (or VACATION for any day)
+	 */
+	private static MeetingIntervalNode findOverlap(MeetingIntervalNode current, int begin, int end, int day) {
+		for(int steps = 0; current != null; steps++) {
+			if(steps > MAX_STEPS) throw new IllegalStateException("The tree changed while reading it");
+			long packed = current.value.packed;
+			if((day == PackedInterval.VACATION || PackedInterval.day(packed) == day)
+					&& PackedInterval.begin(packed) <= end && begin <= PackedInterval.end(packed)) {
+				return current;
+			}
+			MeetingIntervalNode left = current.left;
+			if(left != null && (day == PackedInterval.VACATION ? left.max : left.dayMax[day - 1]) >= begin)
+				current = left;
+			else
+				current = current.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Same as MeetingIntervalTree.countMeetings(LocalDate, LocalDate, int), but
+	 *   the intervals crossing from and to are found with one findOverlap per day
+	 *   of the week (meetings on the same day never overlap, so there's at most one)
+	 */
+	private static long countMeetings(MeetingIntervalNode root, LocalDate from, LocalDate to, int day) {
+		int begin = (int) Math.max(from.toEpochDay(), -PackedInterval.BIAS);
+		int end = (int) Math.min(to.toEpochDay(), PackedInterval.BIAS - 1);
+		if(begin > end) return 0;
+
+		long total = countBeginningBy(root, end, day) - countBeginningBy(root, begin - 1, day);
+		for(int d = 1; d <= 7; d++) {
+			if(day != PackedInterval.VACATION && d != day) continue;
+			MeetingIntervalNode node = findOverlap(root, end, end, d);
+			if(node != null) {
+				long packed = node.value.packed;
+				if(PackedInterval.begin(packed) >= begin && PackedInterval.end(packed) > end)
+					total -= PackedInterval.countMeetings(end + 1, PackedInterval.end(packed), d);
+			}
+			node = findOverlap(root, begin, begin, d);
+			if(node != null) {
+				long packed = node.value.packed;
+				if(PackedInterval.begin(packed) < begin)
+					total += PackedInterval.countMeetings(begin, Math.min(PackedInterval.end(packed), end), d);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Same as MeetingIntervalTree.countBeginningBy
+	 */
+	private static long countBeginningBy(MeetingIntervalNode current, int epochDay, int day) {
+		long total = 0;
+		for(int steps = 0; current != null; steps++) {
+			if(steps > MAX_STEPS) throw new IllegalStateException("The tree changed while reading it");
+			long packed = current.value.packed;
+			if(PackedInterval.begin(packed) <= epochDay) {
+				if(day == PackedInterval.VACATION || PackedInterval.day(packed) == day) total += current.valueCount;
+				MeetingIntervalNode left = current.left;
+				if(left != null) total += day == PackedInterval.VACATION ? left.meetingCount : left.dayCount[day - 1];
+				current = current.right;
+			}
+			else {
+				current = current.left;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,205 @@
+package countMeetings.helpers;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses dates of the format yyyy-MM-dd (eg. 2018-05-02)
+ *
+ * LocalDate.parse goes through a whole DateTimeFormatter for every date, which was
+ *   most of the time it took to read a csv. This reads the digits straight out of
+ *   a String or a byte buffer and works out the epoch day with arithmetic.
+ *
+ * The same dates show up over and over in a calendar, so every parser keeps a
+ *   small direct-mapped cache of the dates it has already seen. A parser isn't
+ *   thread safe, so use one per thread (or shared() to get this thread's parser).
+ *
+ * @author Alex Lay
+ */
+public class DateParser {
+	private static final int CACHE_BITS = 10;
+	private static final int CACHE_SIZE = 1 << CACHE_BITS;
+	// number of days from 0000-01-01 to 1970-01-01
+	private static final int DAYS_0000_TO_1970 = 719528;
+
+	private static final ThreadLocal<DateParser> SHARED = ThreadLocal.withInitial(DateParser::new);
+
+	// the cache is keyed by the date as the number yyyyMMdd (0 = empty slot)
+	private final int[] keys;
+	private final int[] epochDays;
+	private final LocalDate[] dates;
+
+	public DateParser() {
+		keys = new int[CACHE_SIZE];
+		epochDays = new int[CACHE_SIZE];
+		dates = new LocalDate[CACHE_SIZE];
+	}
+
+	/**
+	 * @return the parser for the current thread
+	 */
+	public static DateParser shared() {
+		return SHARED.get();
+	}
+
+	/**
+	 * Parses a date to the number of days since 1970-01-01
+	 *
+	 * @param text = the date (eg. "2018-05-02")
+	 * @return the epoch day of the date
+	 * @throws DateTimeParseException if the date is malformed
+	 */
+	public int parseEpochDay(CharSequence text) {
+		return epochDays[lookup(packedKey(text), text)];
+	}
+
+	/**
+	 * Parses the date between from (inclusive) and to (exclusive) in buffer
+	 *   to the number of days since 1970-01-01
+	 *
+	 * @param buffer = the bytes containing the date
+	 * @param from = the index of the first byte of the date
+	 * @param to = the index after the last byte of the date
+	 * @return the epoch day of the date
+	 * @throws DateTimeParseException if the date is malformed
+	 */
+	public int parseEpochDay(ByteBuffer buffer, int from, int to) {
+		int key = packedKey(buffer, from, to);
+		return epochDays[lookup(key, key < 0 ? text(buffer, from, to) : null)];
+	}
+
+	/**
+	 * Same as parseEpochDay but returns a LocalDate
+	 * Repeated dates return the same LocalDate object
+	 */
+	public LocalDate parseDate(CharSequence text) {
+		return dateAt(lookup(packedKey(text), text));
+	}
+
+	/**
+	 * Same as parseEpochDay but returns a LocalDate
+	 * Repeated dates return the same LocalDate object
+	 */
+	public LocalDate parseDate(ByteBuffer buffer, int from, int to) {
+		int key = packedKey(buffer, from, to);
+		return dateAt(lookup(key, key < 0 ? text(buffer, from, to) : null));
+	}
+
+	private LocalDate dateAt(int slot) {
+		if(dates[slot] == null) {
+			dates[slot] = LocalDate.ofEpochDay(epochDays[slot]);
+		}
+		return dates[slot];
+	}
+
+	/**
+	 * Finds the date in the cache, or validates it and adds it to the cache
+	 *
+	 * @param key = the date as yyyyMMdd, or -1 if it wasn't in the right format
+	 * @param text = the original text (only needed for the error message)
+	 * @return the cache slot holding the date
+	 */
+	private int lookup(int key, CharSequence text) {
+		if(key < 0) {
+			throw malformed(text, "expected yyyy-MM-dd");
+		}
+		int slot = (key * 0x9E3779B1) >>> (32 - CACHE_BITS);
+		if(keys[slot] == key && key != 0) {
+			return slot;
+		}
+
+		int year = key / 10000, month = key / 100 % 100, day = key % 100;
+		if(month < 1 || month > 12) {
+			throw malformed(text != null ? text : format(key), "month out of range");
+		}
+		if(day < 1 || day > lengthOfMonth(year, month)) {
+			throw malformed(text != null ? text : format(key), "day out of range");
+		}
+		keys[slot] = key;
+		epochDays[slot] = toEpochDay(year, month, day);
+		dates[slot] = null;
+		return slot;
+	}
+
+	/**
+	 * Packs a date of the format yyyy-MM-dd into the number yyyyMMdd
+	 *
+	 * @return the packed date or -1 if it isn't in the right format
+	 */
+	private static int packedKey(CharSequence text) {
+		if(text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return -1;
+		int key = 0;
+		for(int x = 0; x < 10; x++) {
+			if(x == 4 || x == 7) continue;
+			int digit = text.charAt(x) - '0';
+			if(digit < 0 || digit > 9) return -1;
+			key = key * 10 + digit;
+		}
+		return key;
+	}
+
+	private static int packedKey(ByteBuffer buffer, int from, int to) {
+		if(to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') return -1;
+		int key = 0;
+		for(int x = 0; x < 10; x++) {
+			if(x == 4 || x == 7) continue;
+			int digit = buffer.get(from + x) - '0';
+			if(digit < 0 || digit > 9) return -1;
+			key = key * 10 + digit;
+		}
+		return key;
+	}
+
+	/**
+	 * Same arithmetic as LocalDate.toEpochDay (years are always positive here)
+	 *
+	 * @return the number of days from 1970-01-01 to the date
+	 */
+	public static int toEpochDay(int year, int month, int day) {
+		int total = 365 * year;
+		total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+		total += (367 * month - 362) / 12;
+		total += day - 1;
+		if(month > 2) {
+			total--;
+			if(!isLeapYear(year)) total--;
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+
+	public static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	public static int lengthOfMonth(int year, int month) {
+		switch(month) {
+			case 2:
+				return isLeapYear(year) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	// only used for error messages
+	private static String text(ByteBuffer buffer, int from, int to) {
+		StringBuilder text = new StringBuilder(to - from);
+		for(int x = from; x < to; x++) {
+			text.append((char) (buffer.get(x) & 0xFF));
+		}
+		return text.toString();
+	}
+
+	private static String format(int key) {
+		return String.format("%04d-%02d-%02d", key / 10000, key / 100 % 100, key % 100);
+	}
+
+	private static DateTimeParseException malformed(CharSequence text, String reason) {
+		return new DateTimeParseException("Invalid date '" + text + "' (" + reason + ")", text, 0);
+	}
+}
@@ -0,0 +1,89 @@
+package countMeetings.helpers;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+
+/**
+ * Maps the name of a day of the week to a DayOfWeek without any allocation
+ *
+ * Accepts (ignoring case)...
+ *   (1) full names like "Monday"
+ *   (2) 3 letter abbreviations like "Mon"
+ *   (3) ISO day numbers "1" (Monday) to "7" (Sunday)
+ *
+ * The first two letters of every day are different (mo, tu, we, th, fr, sa, su),
+ *   so the low 5 bits of those two letters index straight into a table. Then the
+ *   rest of the name only has to be compared against one day.
+ *
+ * @author Alex Lay
+ */
+public final class DayOfWeekLookup {
+	private static final DayOfWeek[] DAYS = DayOfWeek.values();
+	private static final byte[][] NAMES = new byte[DAYS.length][];
+	private static final DayOfWeek[] BY_PREFIX = new DayOfWeek[1 << 10];
+	static {
+		for(DayOfWeek day : DAYS) {
+			byte[] name = day.name().toLowerCase().getBytes();
+			NAMES[day.ordinal()] = name;
+			BY_PREFIX[prefixIndex(name[0], name[1])] = day;
+		}
+	}
+
+	private DayOfWeekLookup() {
+	}
+
+	/**
+	 * @param text = the name of a day of the week (eg. "Monday", "mon" or "1")
+	 * @return the day or null if text isn't a day of the week
+	 */
+	public static DayOfWeek lookup(CharSequence text) {
+		int length = text.length();
+		if(length == 1) {
+			return fromNumber(text.charAt(0));
+		}
+		if(length < 3) return null;
+
+		DayOfWeek day = BY_PREFIX[prefixIndex(text.charAt(0), text.charAt(1))];
+		if(day == null) return null;
+		byte[] name = NAMES[day.ordinal()];
+		if(length != 3 && length != name.length) return null;
+		for(int x = 0; x < length; x++) {
+			if((text.charAt(x) | 0x20) != name[x]) return null;
+		}
+		return day;
+	}
+
+	/**
+	 * Same as lookup(CharSequence) but reads the name straight out of a buffer
+	 *
+	 * @param buffer = the bytes containing the name
+	 * @param from = the index of the first byte of the name
+	 * @param to = the index after the last byte of the name
+	 * @return the day or null if the bytes aren't a day of the week
+	 */
+	public static DayOfWeek lookup(ByteBuffer buffer, int from, int to) {
+		int length = to - from;
+		if(length == 1) {
+			return fromNumber(buffer.get(from));
+		}
+		if(length < 3) return null;
+
+		DayOfWeek day = BY_PREFIX[prefixIndex(buffer.get(from), buffer.get(from + 1))];
+		if(day == null) return null;
+		byte[] name = NAMES[day.ordinal()];
+		if(length != 3 && length != name.length) return null;
+		for(int x = 0; x < length; x++) {
+			if((buffer.get(from + x) | 0x20) != name[x]) return null;
+		}
+		return day;
+	}
+
+	private static DayOfWeek fromNumber(int c) {
+		if(c < '1' || c > '7') return null;
+		return DAYS[c - '1'];
+	}
+
+	private static int prefixIndex(int first, int second) {
+		return ((first & 0x1F) << 5) | (second & 0x1F);
+	}
+}
@@ -0,0 +1,131 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores intervals as columns of primitives instead of MeetingInterval objects
+ *
+ *   begin[i] = the epoch day of the beginDate
+ *   end[i]   = the epoch day of the endDate
+ *   day[i]   = the ISO day of the week (1 = Monday ... 7 = Sunday) or 0 for a vacation
+ *
+ * This is what BinaryCalendar loads into, and it's a lot smaller and faster to
+ *   count than a list of MeetingIntervals.
+ *
+ * @author Alex Lay
+ */
+public class IntervalColumns {
+	public static final byte VACATION = 0;
+
+	private int[] begin;
+	private int[] end;
+	private byte[] day;
+	private int size;
+
+	public IntervalColumns() {
+		this(16);
+	}
+
+	public IntervalColumns(int capacity) {
+		begin = new int[Math.max(capacity, 1)];
+		end = new int[Math.max(capacity, 1)];
+		day = new byte[Math.max(capacity, 1)];
+		size = 0;
+	}
+
+	/**
+	 * Wraps existing columns (they aren't copied)
+	 */
+	public IntervalColumns(int[] begin, int[] end, byte[] day, int size) {
+		this.begin = begin;
+		this.end = end;
+		this.day = day;
+		this.size = size;
+	}
+
+	public void add(int beginEpochDay, int endEpochDay, int isoDay) {
+		if(size == begin.length) {
+			int capacity = begin.length * 2;
+			begin = Arrays.copyOf(begin, capacity);
+			end = Arrays.copyOf(end, capacity);
+			day = Arrays.copyOf(day, capacity);
+		}
+		begin[size] = beginEpochDay;
+		end[size] = endEpochDay;
+		day[size] = (byte) isoDay;
+		size++;
+	}
+
+	public void add(MeetingInterval m) {
+		add((int) m.beginDate.toEpochDay(), (int) m.endDate.toEpochDay(),
+				m.dayOfTheWeek == null ? VACATION : m.dayOfTheWeek.getValue());
+	}
+
+	/**
+	 * Sums the meetings in every row (vacations count as 0)
+	 *
+	 * O(N) with no allocation (see BulkMeetingCounter)
+	 *
+	 * @return the total number of meetings
+	 */
+	public long countMeetings() {
+		return BulkMeetingCounter.countMeetings(this);
+	}
+
+	/**
+	 * Same as MeetingInterval.getMeetingCount, but with arithmetic on epoch days
+	 *
+	 * @param beginEpochDay = the first day of the interval
+	 * @param endEpochDay = the last day of the interval
+	 * @param isoDay = the day of the week the meeting is on (1 = Monday)
+	 * @return the number of times isoDay occurs between beginEpochDay and endEpochDay
+	 */
+	public static long countMeetings(int beginEpochDay, int endEpochDay, int isoDay) {
+		return PackedInterval.countMeetings(beginEpochDay, endEpochDay, isoDay);
+	}
+
+	/**
+	 * @return the ISO day of the week of an epoch day (1 = Monday)
+	 */
+	public static int dayOfWeek(long epochDay) {
+		return PackedInterval.dayOfWeek(epochDay);
+	}
+
+	/**
+	 * @return every row as a MeetingInterval
+	 */
+	public List<MeetingInterval> toMeetingIntervals() {
+		List<MeetingInterval> intervals = new ArrayList<MeetingInterval>(size);
+		for(int x = 0; x < size; x++) {
+			intervals.add(get(x));
+		}
+		return intervals;
+	}
+
+	public MeetingInterval get(int x) {
+		return new MeetingInterval(LocalDate.ofEpochDay(begin[x]), LocalDate.ofEpochDay(end[x]),
+				day[x] == VACATION ? null : DayOfWeek.of(day[x]));
+	}
+
+	// ************** get functions **********************
+
+	public int size() {
+		return size;
+	}
+
+	public int[] getBegin() {
+		return begin;
+	}
+
+	public int[] getEnd() {
+		return end;
+	}
+
+	public byte[] getDay() {
+		return day;
+	}
+}
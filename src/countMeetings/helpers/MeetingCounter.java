@@ -0,0 +1,45 @@
+package countMeetings.helpers;
+
+import java.io.IOException;
+
+/**
+ * Keeps a running total of meetings as rows are scanned
+ * 
+ * Used by the streaming MVP so we never have to hold the whole list of
+ *   MeetingIntervals in memory. Only accepts meetings (no vacations), like
+ *   CSVReader.readMeetingsBasic.
+ * 
+ * @author Alex Lay
+ */
+public class MeetingCounter implements CSVScanner.RowHandler {
+	private long total;
+	private long rows;
+	
+	public MeetingCounter() {
+		total = 0;
+		rows = 0;
+	}
+	
+	@Override
+	public void handleRow(MeetingInterval interval) throws IOException {
+		if(interval.dayOfTheWeek == null) {
+			throw new IOException("Invalid input file format on row " + (rows + 1) + ".");
+		}
+		total += interval.getMeetingCount();
+		rows++;
+	}
+	
+	/**
+	 * @return the total number of meetings counted so far
+	 */
+	public long getTotal() {
+		return total;
+	}
+	
+	/**
+	 * @return the number of rows counted so far
+	 */
+	public long getRows() {
+		return rows;
+	}
+}
@@ -0,0 +1,83 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Something that can hold a calendar of meetings for CountMeetingsFull
+ * 
+ * Overlapping meetings on the same day of the week are merged as they are
+ *   inserted, and vacations cut meetings out of the calendar, so the count
+ *   never includes the same day twice.
+ * 
+ * Implementations...
+ *   MeetingIntervalTree = one interval tree for every day of the week
+ *   WeekdayPartitionedIndex = a separate set of intervals for each day of the week
+ *   SkipListMeetingIndex = a ConcurrentSkipListMap that many threads can insert into at once
+ * 
+ * @author Alex Lay
+ */
+public interface MeetingIndex {
+	/**
+	 * Inserts a meeting, merging it with any meetings it overlaps
+	 * 
+	 * @param m = the meeting to insert
+	 */
+	void insert(MeetingInterval m);
+	
+	/**
+	 * Inserts a list of meetings
+	 * 
+	 * @param meetings = the meetings to insert
+	 */
+	default void insertList(List<MeetingInterval> meetings) {
+		for(MeetingInterval m : meetings) {
+			insert(m);
+		}
+	}
+	
+	/**
+	 * Cuts a vacation out of every meeting it overlaps
+	 * 
+	 * @param vacation = the vacation to remove
+	 */
+	void removeVacation(MeetingInterval vacation);
+	
+	/**
+	 * Removes a list of vacations
+	 * 
+	 * @param vacations = the vacations to remove
+	 */
+	default void removeVacations(List<MeetingInterval> vacations) {
+		for(MeetingInterval vacation : vacations) {
+			removeVacation(vacation);
+		}
+	}
+	
+	/**
+	 * @return the total number of meetings
+	 */
+	long countMeetings();
+	
+	/**
+	 * @param from = the first date to count
+	 * @param to = the last date to count
+	 * @return the number of meetings from from to to (both included)
+	 */
+	long countMeetings(LocalDate from, LocalDate to);
+	
+	/**
+	 * @param from = the first date to count
+	 * @param to = the last date to count
+	 * @param day = the day of the week to count
+	 * @return the number of meetings on day from from to to (both included)
+	 */
+	long countMeetings(LocalDate from, LocalDate to, DayOfWeek day);
+	
+	/**
+	 * @param date = the date to check
+	 * @return whether there is a meeting on that date
+	 */
+	boolean haveMeeting(LocalDate date);
+}
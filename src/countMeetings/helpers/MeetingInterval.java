@@ -2,9 +2,7 @@ package countMeetings.helpers;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalAccessor;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,30 +17,35 @@ public class MeetingInterval {
 	LocalDate beginDate;
 	LocalDate endDate;
 	DayOfWeek dayOfTheWeek; // enum of the days of the week
+	long packed; // the same interval as a PackedInterval (used by the hot paths)
 	
 	public MeetingInterval() {
 		beginDate = null;
 		endDate = null;
 		dayOfTheWeek = null;
+		packed = PackedInterval.EMPTY;
 	}
 	
 	public MeetingInterval(String begin, String end, String day) {
-		beginDate = LocalDate.parse(begin);
-		endDate = LocalDate.parse(end);
+		beginDate = DateParser.shared().parseDate(begin);
+		endDate = DateParser.shared().parseDate(end);
 		dayOfTheWeek = mapDayOfWeek(day);
+		packed = PackedInterval.pack(beginDate, endDate, dayOfTheWeek);
 	}
 	
 	// Represents a Holiday or Vacation
 	public MeetingInterval(String begin, String end) {
-		beginDate = LocalDate.parse(begin);
-		endDate = LocalDate.parse(end);
+		beginDate = DateParser.shared().parseDate(begin);
+		endDate = DateParser.shared().parseDate(end);
 		dayOfTheWeek = null;
+		packed = PackedInterval.pack(beginDate, endDate, dayOfTheWeek);
 	}
 	
 	public MeetingInterval(LocalDate begin, LocalDate end, DayOfWeek day) {
 		beginDate = begin;
 		endDate = end;
 		dayOfTheWeek = day;
+		packed = PackedInterval.pack(beginDate, endDate, dayOfTheWeek);
 	}
 	
 	public void display() {
@@ -58,18 +61,16 @@ public class MeetingInterval {
 	 * Computes the number of meetings in this interval.
 	 *   eg. "The number of dayOfTheWeek from beginDate to EndDate"
 	 * 
+	 * O(1) arithmetic on the packed interval (no allocation)
+	 * 
 	 * @return the number of meetings in this interval
 	 */
 	public int getMeetingCount() {
-		LocalDate newBeginDate = getFirstDayOfTheWeek();
-		if(newBeginDate.compareTo(endDate) > 0) return 0;
-		// number of days between beginDate (inclusive) and endDate (exclusive)
-		long numDaysBetween = ChronoUnit.DAYS.between(newBeginDate, endDate);
-		return Math.toIntExact((numDaysBetween / 7) + 1); // + 1 for first dayOfTheWeek
+		return PackedInterval.countMeetings(packed);
 	}
 	/**
 	 * Fast-forwards from beginDate to the first instance of dayOfTheWeek
-	 * Helper func for getMeetingCount
+	 * (getMeetingCount does the same thing on epoch days in PackedInterval.countMeetings)
 	 * 
 	 * @return the LocalDate object corresponding to the above
 	 */
@@ -83,25 +84,23 @@ public class MeetingInterval {
 	}
 	/**
 	 * Converts a string of a day of the week to a DayOfWeek enum
+	 * Also accepts abbreviations ("Mon") and ISO day numbers ("1"), ignoring case
 	 * 
 	 * @param day is a String of a day of the week (eg. "Monday")
 	 * @return DayOfWeek enum
+	 * @throws DateTimeParseException if day isn't a day of the week
 	 */
 	public DayOfWeek mapDayOfWeek(String day) {
-		// https://stackoverflow.com/questions/18232340/convert-string-to-day-of-week-not-exact-date
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE");
-        TemporalAccessor accessor = formatter.parse(day);
-        return DayOfWeek.from(accessor);
+		DayOfWeek dayOfWeek = DayOfWeekLookup.lookup(day);
+		if(dayOfWeek == null) {
+			throw new DateTimeParseException("Invalid day of the week '" + day + "'", day, 0);
+		}
+		return dayOfWeek;
 	}
 	
 	public boolean isDayOfTheWeek(DayOfWeek d) {
-		if(d == null) return false;
-		else {
-			for (DayOfWeek x : DayOfWeek.values()) {
-				if(x == d) return true;
-			}
-			return false;
-		}
+		// DayOfWeek is an enum, so anything that isn't null is a day of the week
+		return d != null;
 	}
 	
 	/**
@@ -141,15 +140,7 @@ public class MeetingInterval {
 	 * @return if m overlaps with this or not
 	 */
 	public boolean overlaps(MeetingInterval m) {
-		if(isDayOfTheWeek(m.dayOfTheWeek) && isDayOfTheWeek(dayOfTheWeek)) {
-			// comparing two meetings
-			if(dayOfTheWeek != m.dayOfTheWeek) return false;
-		}
-		// check if overlaps
-		if(m.beginDate.compareTo(endDate) <= 0 && beginDate.compareTo(m.endDate) <= 0)
-			return true;
-
-		return false;
+		return PackedInterval.overlaps(packed, m.packed);
 	}
 	
 	/**
@@ -213,6 +204,26 @@ public class MeetingInterval {
 		}
 	}
 	
+	public LocalDate getBeginDate() {
+		return beginDate;
+	}
+	
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+	
+	// null for a vacation
+	public DayOfWeek getDayOfTheWeek() {
+		return dayOfTheWeek;
+	}
+	
+	/**
+	 * @return this interval packed into a long (see PackedInterval)
+	 */
+	public long getPacked() {
+		return packed;
+	}
+	
 	public boolean isSameInterval(MeetingInterval m) {
 		if(m.beginDate.compareTo(beginDate) == 0 &&
 			m.endDate.compareTo(endDate) == 0) {
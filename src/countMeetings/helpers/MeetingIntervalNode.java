@@ -1,8 +1,7 @@
 package countMeetings.helpers;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.time.DayOfWeek;
 
 /**
@@ -14,23 +13,38 @@ import java.time.DayOfWeek;
  *   date for each weekday so the search algorithm can find all overlapping
  *   intervals for each weekday.
  * 
+ * Both are stored as epoch days. dayMax has a slot for each weekday (Monday = 0)
+ *   and dayMask has a bit for each weekday that is in the subtree, so checking a
+ *   weekday's max is one array read and updating them never allocates.
+ * 
+ * Each node also keeps the total number of meetings in its subtree (and the
+ *   number on each weekday), so the count for the whole tree is just the root's
+ *   and MeetingIntervalTree can count a date range in O(logN).
+ * 
  * @author Alex Lay
  */
 public class MeetingIntervalNode {
 	// for the interest of saving time I just made these public
 	// ideally would be private and have get and set methods
 	MeetingInterval value;
-	Map<DayOfWeek, LocalDate> dayMax; // keep track of each day's max
-	LocalDate max;
+	final int[] dayMax = new int[7]; // keep track of each day's max (NO_DAY if it isn't in the subtree)
+	int dayMask; // bit d is set if weekday d is in the subtree
+	int max;
+	int valueCount; // the number of meetings in value
+	long meetingCount; // the number of meetings in this subtree
+	final long[] dayCount = new long[7]; // the number of meetings in this subtree on each weekday
 	MeetingIntervalNode parent, left, right;
 	char color;
 	
+	// smaller than any epoch day, so a weekday that isn't in the subtree never looks like an overlap
+	static final int NO_DAY = Integer.MIN_VALUE;
+	
 	// root has parent node null
 	public MeetingIntervalNode(MeetingInterval v, MeetingIntervalNode p) {
 		value = v;
-		max = v.endDate;
-		dayMax = new HashMap<DayOfWeek, LocalDate>();
-		dayMax.put(v.dayOfTheWeek, max);
+		valueCount = PackedInterval.countMeetings(v.packed);
+		Arrays.fill(dayMax, NO_DAY);
+		update();
 		parent = p;
 		left = null;
 		right = null;
@@ -38,76 +52,132 @@ public class MeetingIntervalNode {
 	}
 	
 	/**
-	 * Recursively recalculates the max value based on itself, its left child, and its right child
+	 * Recalculates the max value based on itself, its left child, and its right child
 	 * Also recalculates the dayMaxes
 	 * 
 	 * You can imagine this recalculating the variables up the tree 
-	 *   after a rotation, insert, or delete
+	 *   after an insert or delete. It stops at the first node whose max and
+	 *   dayMaxes didn't change, since nothing above it can change either. So
+	 *   it's O(logN) at worst but usually only a few nodes.
+	 * 
+	 * @return the number of nodes visited
 	 */
-	public void recalculateMax() {
-		DayOfWeek currentDay = this.value.dayOfTheWeek;
-		// recalc regular max
-		updateMax();
-		// recalc dayMaxes
-		this.dayMax = updateDayMax();
+	public int recalculateMax() {
+		int visits = 0;
+		for(MeetingIntervalNode node = this; node != null; node = node.parent) {
+			visits++;
+			if(!node.update()) break;
+		}
+		return visits;
+	}
+	
+	/**
+	 * Recalculates the meeting counts from this node up to the root
+	 * 
+	 * Unlike the maxes, the counts of every ancestor change when a node is
+	 *   added or removed, so this always goes all the way up. O(logN), but it's
+	 *   only an addition per node.
+	 */
+	public void recalculateCount() {
+		for(MeetingIntervalNode node = this; node != null; node = node.parent) {
+			node.updateCount();
+		}
+	}
+	
+	/**
+	 * Recalculates the meeting count of just this node (from its children)
+	 */
+	public void updateCount() {
+		long count = valueCount;
+		if(this.left != null) count += this.left.meetingCount;
+		if(this.right != null) count += this.right.meetingCount;
+		this.meetingCount = count;
 		
-		// recursively update max up the tree
-		if(this.parent != null) {
-			parent.recalculateMax();
+		int day = PackedInterval.day(this.value.packed);
+		for(int d = 0; d < 7; d++) {
+			long newDayCount = d == day - 1 ? valueCount : 0;
+			if(this.left != null) newDayCount += this.left.dayCount[d];
+			if(this.right != null) newDayCount += this.right.dayCount[d];
+			dayCount[d] = newDayCount;
 		}
 	}
 	
+	/**
+	 * Recalculates max, dayMaxes and the meeting count for just this node (from its children)
+	 * 
+	 * @return whether the max or dayMaxes changed
+	 */
+	public boolean update() {
+		updateCount();
+		// recalc regular max
+		boolean isChanged = updateMax();
+		// recalc dayMaxes (| so both always run)
+		return updateDayMax() | isChanged;
+	}
+	
 	/**
 	 * Updates the regular max
 	 * The regular max is used when we don't care about days of the week
 	 *   (i.e. vacations or holidays)
+	 * 
+	 * @return whether max changed
 	 */
-	public void updateMax() {
-		LocalDate maxRight = null, maxLeft = null, maxLeftRight = null;
-		if(this.right != null) {
-			if(this.right.max.compareTo(this.max) > 0)
-				maxRight = right.max;
-		}
-		
-		if(this.left != null) {
-			if(this.left.max.compareTo(this.max) > 0)
-				maxLeft = left.max;
-		}
-		if(maxRight != null && maxLeft != null) {
-			maxLeftRight = maxRight.isAfter(maxLeft) ? maxRight : maxLeft;
-			this.max = maxLeftRight.isAfter(this.value.endDate) ? maxLeftRight : this.value.endDate; 
-		}
-		else if(maxRight != null)
-			this.max = maxRight.isAfter(this.value.endDate) ? maxRight : this.value.endDate;
-		else if(maxLeft != null)
-			this.max = maxLeft.isAfter(this.value.endDate) ? maxLeft : this.value.endDate; 
-		else
-			this.max = this.value.endDate;
+	public boolean updateMax() {
+		// start from this node's own endDate (not the old max, which may have been removed)
+		int newMax = PackedInterval.end(this.value.packed);
+		if(this.right != null && this.right.max > newMax)
+			newMax = this.right.max;
+		if(this.left != null && this.left.max > newMax)
+			newMax = this.left.max;
+		if(newMax == this.max) return false;
+		this.max = newMax;
+		return true;
 	}
 	
 	/**
-	 * Updates the dayMaxes
+	 * Updates the dayMaxes (in place)
 	 * 
-	 * This map is used when we care about the days of the week
+	 * This array is used when we care about the days of the week
 	 * It allows MeetingIntervalTree.findOverlap to find all of the intervals
 	 *   that overlap with the given date and have the same day of the week
 	 * 
-	 * @return a map of the new dayMaxes
+	 * @return whether any of the dayMaxes changed
 	 */
-	public Map<DayOfWeek, LocalDate> updateDayMax() {
-		Map<DayOfWeek, LocalDate> newDayMax = new HashMap<DayOfWeek, LocalDate>();
-
-		if(this.right != null)
-			newDayMax.putAll(this.right.dayMax);
-		if(this.left != null)
-			newDayMax.putAll(this.left.dayMax);
+	public boolean updateDayMax() {
+		int day = PackedInterval.day(this.value.packed);
+		int end = PackedInterval.end(this.value.packed);
+		int mask = day == PackedInterval.VACATION ? 0 : 1 << (day - 1);
+		if(this.right != null) mask |= this.right.dayMask;
+		if(this.left != null) mask |= this.left.dayMask;
 		
-		if(newDayMax.containsKey(this.value.dayOfTheWeek) && newDayMax.get(this.value.dayOfTheWeek).compareTo(this.max) < 0) {
-			newDayMax.put(this.value.dayOfTheWeek, this.value.endDate);
+		boolean isChanged = mask != dayMask;
+		dayMask = mask;
+		for(int d = 0; d < 7; d++) {
+			int newDayMax = d == day - 1 ? end : NO_DAY;
+			if(this.right != null && this.right.dayMax[d] > newDayMax)
+				newDayMax = this.right.dayMax[d];
+			if(this.left != null && this.left.dayMax[d] > newDayMax)
+				newDayMax = this.left.dayMax[d];
+			if(newDayMax != dayMax[d]) {
+				dayMax[d] = newDayMax;
+				isChanged = true;
+			}
 		}
-		else if(!newDayMax.containsKey(this.value.dayOfTheWeek))
-			newDayMax.put(this.value.dayOfTheWeek, this.value.endDate);
-		return newDayMax;
+		return isChanged;
+	}
+	
+	/**
+	 * Copies max, dayMaxes and the meeting count from another node
+	 * Used when a node takes another's place in the tree (so the ancestors still agree with it)
+	 * 
+	 * @param node = the node to copy from
+	 */
+	public void copyMax(MeetingIntervalNode node) {
+		this.max = node.max;
+		this.meetingCount = node.meetingCount;
+		System.arraycopy(node.dayCount, 0, this.dayCount, 0, this.dayCount.length);
+		this.dayMask = node.dayMask;
+		System.arraycopy(node.dayMax, 0, this.dayMax, 0, this.dayMax.length);
 	}
 	
 	// ************** get and set functions **********************
@@ -118,22 +188,53 @@ public class MeetingIntervalNode {
 	
 	public void setValue(MeetingInterval m) {
 		this.value = m;
+		this.valueCount = PackedInterval.countMeetings(m.packed);
+	}
+	
+	/**
+	 * @return the total number of meetings in this subtree
+	 */
+	public long getMeetingCount() {
+		return this.meetingCount;
+	}
+	
+	/**
+	 * @param day = a day of the week
+	 * @return the number of meetings on day in this subtree
+	 */
+	public long getMeetingCount(DayOfWeek day) {
+		return this.dayCount[day.getValue() - 1];
 	}
 	
-	public Map<DayOfWeek, LocalDate> getDayMax() {
-		return this.dayMax;
+	/**
+	 * @param day = a day of the week
+	 * @return the latest endDate of the meetings on day in this subtree (null if there aren't any)
+	 */
+	public LocalDate getDayMax(DayOfWeek day) {
+		int d = day.getValue() - 1;
+		return (dayMask & (1 << d)) == 0 ? null : LocalDate.ofEpochDay(dayMax[d]);
 	}
 	
-	public void setDayMax(Map<DayOfWeek, LocalDate> d) {
-		this.dayMax = d;
+	/**
+	 * @return the epoch day version of getDayMax (NO_DAY if there aren't any)
+	 */
+	public int getDayMaxEpochDay(DayOfWeek day) {
+		return dayMax[day.getValue() - 1];
+	}
+	
+	/**
+	 * @return bit d is set if there is a meeting on weekday d (Monday = 0) in this subtree
+	 */
+	public int getDayMask() {
+		return this.dayMask;
 	}
 	
 	public LocalDate getMax() {
-		return this.max;
+		return LocalDate.ofEpochDay(this.max);
 	}
 	
-	public void setMax(LocalDate d) {
-		max = d;
+	public int getMaxEpochDay() {
+		return this.max;
 	}
 	
 	public MeetingIntervalNode getParent() {
@@ -194,8 +295,13 @@ public class MeetingIntervalNode {
 			System.out.println("\tRed");
 		else
 			System.out.println("\tBlack");
-		System.out.println("\tMax: " + max);
-		System.out.println("\tdayMaxes: " + dayMax);
+		System.out.println("\tMax: " + getMax());
+		System.out.println("\tMeetings: " + meetingCount);
+		System.out.print("\tdayMaxes: {");
+		for(DayOfWeek day : DayOfWeek.values()) {
+			if(getDayMax(day) != null) System.out.print(" " + day + "=" + getDayMax(day));
+		}
+		System.out.println(" }");
 		System.out.print("\tParent - ");
 		if(parent != null) parent.value.display();
 		else System.out.println("Null");
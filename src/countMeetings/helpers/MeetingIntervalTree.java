@@ -1,8 +1,15 @@
 package countMeetings.helpers;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Function;
 
@@ -20,28 +27,168 @@ import java.util.function.Function;
  * 
  * @author Alex Lay
  */
-public class MeetingIntervalTree {
+public class MeetingIntervalTree implements MeetingIndex {
 	private MeetingIntervalNode root;
+	// how many times a node's max and dayMaxes have been recalculated (see getAugmentationVisits)
+	private long augmentationVisits;
+	// the number of nodes in the tree
+	private int size;
+	// removeList rebuilds the tree instead of removing one at a time if at least 1/REBUILD_FRACTION of it goes
+	private static final int REBUILD_FRACTION = 4;
 	
 	public MeetingIntervalTree() {
 		root = null;
+		augmentationVisits = 0;
+		size = 0;
 	}
 	
 	public MeetingIntervalNode getRoot() {
 		return root;
 	}
 	
+	/**
+	 * @return how many times a node's max and dayMaxes have been recalculated
+	 *   by inserts, removes and rotations (a measure of how much maintenance the tree costs)
+	 */
+	public long getAugmentationVisits() {
+		return augmentationVisits;
+	}
+	
+	/**
+	 * @return the number of nodes (merged intervals) in the tree
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Counts the total number of meetings in the whole tree
+	 * 
+	 * O(1) (it's the root's subtree count)
+	 * 
+	 * @return the total number of meetings in the tree
+	 */
+	@Override
+	public long countMeetings() {
+		return root == null ? 0 : root.meetingCount;
+	}
+	
+	/**
+	 * Checks if there is a meeting on the given date
+	 * 
+	 * O(logN)
+	 * 
+	 * @param date = the date to check
+	 * @return whether there is a meeting on that date
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		MeetingInterval day = new MeetingInterval(date, date, date.getDayOfWeek());
+		return findOverlap(root, day) != null;
+	}
+	
+	/**
+	 * Counts the meetings from one date to another (both included)
+	 * 
+	 * (1) Adds up every interval that begins between from and to with the
+	 *       subtree counts (see countBeginningBy)
+	 * (2) Takes off the part of those intervals that runs past to
+	 * (3) Adds the part of the intervals that began before from and are still going
+	 * Meetings on the same day of the week are never in the tree twice for the same
+	 *   date, so (2) and (3) are at most 7 intervals each and are clipped with
+	 *   PackedInterval.countMeetings.
+	 * 
+	 * O(logN)
+	 * 
+	 * @param from = the first date to count
+	 * @param to = the last date to count
+	 * @return the number of meetings from from to to
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		return countMeetings(from, to, PackedInterval.VACATION);
+	}
+	
+	/**
+	 * Same as countMeetings(from, to) but only counts meetings on one day of the week
+	 * 
+	 * O(logN)
+	 * 
+	 * @param day = the day of the week to count
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return countMeetings(from, to, day.getValue());
+	}
+	
+	/**
+	 * @param day = the ISO day of the week to count, or VACATION for every day
+	 */
+	private long countMeetings(LocalDate from, LocalDate to, int day) {
+		// dates outside of what PackedInterval can hold can't have meetings
+		int begin = (int) Math.max(from.toEpochDay(), -PackedInterval.BIAS);
+		int end = (int) Math.min(to.toEpochDay(), PackedInterval.BIAS - 1);
+		if(begin > end) return 0;
+		
+		long total = countBeginningBy(end, day) - countBeginningBy(begin - 1, day);
+		for(MeetingIntervalNode node : collectOverlaps(PackedInterval.unpack(PackedInterval.pack(end, end, day)))) {
+			long packed = node.value.packed;
+			if(PackedInterval.isVacation(packed) || PackedInterval.begin(packed) < begin) continue;
+			if(PackedInterval.end(packed) > end)
+				total -= PackedInterval.countMeetings(end + 1, PackedInterval.end(packed), PackedInterval.day(packed));
+		}
+		for(MeetingIntervalNode node : collectOverlaps(PackedInterval.unpack(PackedInterval.pack(begin, begin, day)))) {
+			long packed = node.value.packed;
+			if(PackedInterval.isVacation(packed) || PackedInterval.begin(packed) >= begin) continue;
+			total += PackedInterval.countMeetings(begin, Math.min(PackedInterval.end(packed), end), PackedInterval.day(packed));
+		}
+		return total;
+	}
+	
+	/**
+	 * Adds up the meetings in every interval that begins on or before epochDay
+	 * 
+	 * Walks down from the root. Whenever a node begins on or before epochDay, so
+	 *   does its whole left subtree, so its subtree count is added and the walk
+	 *   goes right. O(logN)
+	 * 
+	 * @param epochDay = the last beginDate to include
+	 * @param day = the ISO day of the week to count, or VACATION for every day
+	 * @return the meetings in those intervals (all of them, even past epochDay)
+	 */
+	private long countBeginningBy(int epochDay, int day) {
+		long count = 0;
+		MeetingIntervalNode current = root;
+		while(current != null) {
+			if(PackedInterval.begin(current.value.packed) <= epochDay) {
+				if(day == PackedInterval.VACATION || PackedInterval.day(current.value.packed) == day)
+					count += current.valueCount;
+				count += subtreeCount(current.left, day);
+				current = current.right;
+			}
+			else {
+				current = current.left;
+			}
+		}
+		return count;
+	}
+	
+	private static long subtreeCount(MeetingIntervalNode node, int day) {
+		if(node == null) return 0;
+		return day == PackedInterval.VACATION ? node.meetingCount : node.dayCount[day - 1];
+	}
+	
 	/**
 	 * Counts the total number of meetings
 	 * 
+	 * Every node keeps the count for its subtree, so this is O(1)
+	 * 
 	 * @param root = is the root of the tree
 	 * @return the total number of meetings in the tree
 	 */
 	public Integer countMeetings(MeetingIntervalNode root) {
 		if(root == null) return 0;
-		
-		return root.value.getMeetingCount() + countMeetings(root.right) 
-											+ countMeetings(root.left);
+		return Math.toIntExact(root.meetingCount);
 	}
 	
 	/**
@@ -52,7 +199,9 @@ public class MeetingIntervalTree {
 	 * 
 	 * @param m = The interval to insert
 	 */
+	@Override
 	public void insert(MeetingInterval m) {
+		size++;
 		if(root == null) {
 			root = new MeetingIntervalNode(m, null);
 		    root.color = 'B';
@@ -61,8 +210,12 @@ public class MeetingIntervalTree {
 			m = handleOverlaps(m);		  // merge overlapping
 			MeetingIntervalNode newNode = new MeetingIntervalNode(m, null);
 			insertHelper(root, newNode);  // insert merged interval
+			// fix the maxes and counts above the new node before rotating (rotations only fix the two nodes they move)
+			if(newNode.parent != null) {
+				augmentationVisits += newNode.parent.recalculateMax();
+				newNode.parent.recalculateCount();
+			}
 			insertionFixUp(newNode);
-			newNode.recalculateMax();
 		}
 	}
 	
@@ -86,19 +239,85 @@ public class MeetingIntervalTree {
 	/**
 	 * inserts a list of meeting intervals
 	 * 
+	 * If the list is at least as big as the tree, the tree is rebuilt from scratch
+	 *   with bulkLoad (O((N+M)log(N+M)) for the sort, then O(N+M)). Otherwise (or
+	 *   if there are vacations involved) each meeting is inserted one at a time.
+	 * 
 	 * @param meetings = the list to insert
 	 */
+	@Override
 	public void insertList(List<MeetingInterval> meetings) {
+		if(meetings.size() >= size && bulkLoad(meetings)) return;
 		for(MeetingInterval m : meetings) {
 			insert(m);
 		}
 	}
 	
 	/**
-	 * Recursively inserts into the tree
+	 * Rebuilds the tree from its own intervals plus meetings
+	 * 
+	 * (1) Merges overlapping meetings in one sweep after a sort (PackedInterval.coalesce),
+	 *       which gives the same intervals handleOverlaps would
+	 * (2) Builds a balanced tree out of them bottom-up, so there are no
+	 *       rotations or overlap searches at all
+	 * 
+	 * Only meetings can be bulk loaded, since a vacation overlaps every day of the week.
+	 * 
+	 * @param meetings = the meetings to add
+	 * @return false (and the tree is untouched) if there was a vacation
+	 */
+	private boolean bulkLoad(List<MeetingInterval> meetings) {
+		List<MeetingInterval> existing = toList();
+		long[] packed = new long[existing.size() + meetings.size()];
+		int n = 0;
+		for(List<MeetingInterval> list : Arrays.asList(existing, meetings)) {
+			for(MeetingInterval m : list) {
+				if(m.packed == PackedInterval.EMPTY || PackedInterval.isVacation(m.packed)) return false;
+				packed[n++] = m.packed;
+			}
+		}
+		rebuild(packed, PackedInterval.coalesce(packed, n));
+		return true;
+	}
+	
+	/**
+	 * Replaces the whole tree with a balanced tree of sorted[0..count-1]
+	 * 
+	 * @param sorted = packed intervals sorted by beginDate
+	 * @param count = how many of them to use
+	 */
+	private void rebuild(long[] sorted, int count) {
+		// nodes on the bottom level are red if it isn't full, everything else is black
+		int redDepth = 31 - Integer.numberOfLeadingZeros(count);
+		root = build(sorted, 0, count - 1, null, 0, redDepth);
+		size = count;
+		augmentationVisits += count;
+	}
+	
+	/**
+	 * Builds a balanced subtree out of sorted[low..high] (middle one on top)
+	 * 
+	 * Recursion is only logN deep. Each node's max, dayMaxes and count are calculated
+	 *   once its children are built, so it's O(N) overall.
+	 * 
+	 * @return the root of the subtree (null if low > high)
+	 */
+	private MeetingIntervalNode build(long[] sorted, int low, int high, MeetingIntervalNode parent, int depth, int redDepth) {
+		if(low > high) return null;
+		int mid = (low + high) >>> 1;
+		MeetingIntervalNode node = new MeetingIntervalNode(PackedInterval.unpack(sorted[mid]), parent);
+		node.left = build(sorted, low, mid - 1, node, depth + 1, redDepth);
+		node.right = build(sorted, mid + 1, high, node, depth + 1, redDepth);
+		node.color = depth == redDepth && depth > 0 ? 'R' : 'B';
+		node.update();
+		return node;
+	}
+	
+	/**
+	 * Walks down from current to the empty spot for m and inserts it there
 	 * Sorted by beginDate
 	 * 
-	 * @param current = the current node
+	 * @param current = the node to start from
 	 * @param m = the node to insert
 	 */
 	private void insertHelper(MeetingIntervalNode current, MeetingIntervalNode m) {
@@ -107,22 +326,25 @@ public class MeetingIntervalTree {
 		    root.color = 'B';
 		    return;
 		}
-		// sort by beginDate
-		if(m.value.beginDate.compareTo(current.value.beginDate) <= 0) {
-			if(current.left == null) {
-				m.parent = current;
-				current.left = m;
+		int begin = PackedInterval.begin(m.value.packed);
+		while(true) {
+			// sort by beginDate
+			if(begin <= PackedInterval.begin(current.value.packed)) {
+				if(current.left == null) {
+					m.parent = current;
+					current.left = m;
+					return;
+				}
+				current = current.left;
 			}
-			else
-				insertHelper(current.left, m);
-		}
-		else {
-			if(current.right == null) {
-				m.parent = current;
-				current.right = m;
+			else {
+				if(current.right == null) {
+					m.parent = current;
+					current.right = m;
+					return;
+				}
+				current = current.right;
 			}
-			else
-				insertHelper(current.right, m);
 		}
 	}
 	
@@ -161,22 +383,83 @@ public class MeetingIntervalTree {
 	/**
 	 * Removes all values that overlap with value and returns them in a list
 	 * 
+	 * They're all found in one collectOverlaps traversal and then removed
+	 *   together (see removeList), instead of searching from the root again
+	 *   after every removal.
+	 * 
 	 * @param = value the value to check what overlaps with it
 	 * @return a list of intervals that overlap with value
 	 */
 	public List<MeetingInterval> removeAllOverlaps(MeetingInterval value) {
-		List<MeetingInterval> overlaps = new ArrayList<MeetingInterval>();
-		MeetingIntervalNode overlap = findOverlap(root, value);
-		while(overlap != null) {
-			if(overlap != null) {
-				overlaps.add(overlap.value);
-				remove(overlap);
-			}
-			overlap = findOverlap(root, value);
+		List<MeetingIntervalNode> nodes = collectOverlaps(value);
+		List<MeetingInterval> overlaps = new ArrayList<MeetingInterval>(nodes.size());
+		for(MeetingIntervalNode node : nodes) {
+			overlaps.add(node.value);
 		}
+		removeList(nodes);
 		return overlaps;
 	}
 	
+	/**
+	 * Finds every node that overlaps with value in one traversal
+	 * 
+	 * A subtree is skipped if its max (or the dayMax for value's day of the week,
+	 *   if value is a meeting) is before value's beginDate. A right subtree is also
+	 *   skipped if the node begins after value's endDate, since everything to its
+	 *   right begins even later. So only subtrees that can hold an overlap are
+	 *   visited; O(logN + K) for K overlaps in the usual case.
+	 * 
+	 * Meetings are only compared to meetings on the same day (like findOverlap),
+	 *   so this assumes the tree only holds meetings if value is a meeting.
+	 * 
+	 * @param value = the value to find what overlaps with it
+	 * @return every node that overlaps with value
+	 */
+	public List<MeetingIntervalNode> collectOverlaps(MeetingInterval value) {
+		List<MeetingIntervalNode> overlaps = new ArrayList<MeetingIntervalNode>();
+		int begin = PackedInterval.begin(value.packed);
+		int end = PackedInterval.end(value.packed);
+		int day = PackedInterval.day(value.packed);
+		Deque<MeetingIntervalNode> stack = new ArrayDeque<MeetingIntervalNode>();
+		if(canOverlap(root, begin, day)) stack.push(root);
+		while(!stack.isEmpty()) {
+			MeetingIntervalNode current = stack.pop();
+			if(current.value.overlaps(value)) overlaps.add(current);
+			if(PackedInterval.begin(current.value.packed) <= end && canOverlap(current.right, begin, day))
+				stack.push(current.right);
+			if(canOverlap(current.left, begin, day))
+				stack.push(current.left);
+		}
+		return overlaps;
+	}
+	
+	/**
+	 * @return whether anything in node's subtree can end on or after begin
+	 */
+	private static boolean canOverlap(MeetingIntervalNode node, int begin, int day) {
+		if(node == null) return false;
+		return (day == PackedInterval.VACATION ? node.max : node.dayMax[day - 1]) >= begin;
+	}
+	
+	/**
+	 * Removes a vacation from the tree
+	 * 
+	 * (1) Gets and removes all meetings that overlap with the vacation
+	 * (2) Splits each of them on the vacation
+	 * (3) Inserts the split intervals back into the tree
+	 * 
+	 * @param vacation = the vacation to remove
+	 */
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		List<MeetingInterval> overlaps = removeAllOverlaps(vacation);
+		// for every overlap, split on vacation and insert back into tree
+		for (MeetingInterval overlap : overlaps) {
+			List<MeetingInterval> newMeetings = overlap.split(vacation);
+			insertList(newMeetings);
+		}
+	}
+	
 	/**
 	 * Finds a node that overlaps with the given value
 	 * 
@@ -185,146 +468,231 @@ public class MeetingIntervalTree {
 	 * @return a node that overlaps with value
 	 */
 	public MeetingIntervalNode findOverlap(MeetingIntervalNode current, MeetingInterval value) {
-		if(current == null) return null;
-		
-		// if meetingIntervals overlap, return
-		if(current.value.overlaps(value)) {
-			return current;
-		}
-		else if(current.value.dayOfTheWeek != null && value.dayOfTheWeek != null) {
-			// dealing with two meetings so should compare the maxes of the same day
-			if(current.left != null && current.left.dayMax.containsKey(value.dayOfTheWeek)) {
-				LocalDate leftDayMax = current.left.dayMax.get(value.dayOfTheWeek);
-				if(leftDayMax.compareTo(value.beginDate) >= 0)
-					return findOverlap(current.left, value);
+		int begin = PackedInterval.begin(value.packed);
+		int day = PackedInterval.day(value.packed);
+		while(current != null) {
+			// if meetingIntervals overlap, return
+			if(current.value.overlaps(value)) {
+				return current;
 			}
-			return findOverlap(current.right, value);
+			else if(day != PackedInterval.VACATION && !PackedInterval.isVacation(current.value.packed)) {
+				// dealing with two meetings so should compare the maxes of the same day
+				if(current.left != null && current.left.dayMax[day - 1] >= begin)
+					current = current.left;
+				else
+					current = current.right;
+			}
+			// if max of left child >= to interval, may overlap with interval in left subtree
+			else if(current.left != null && current.left.max >= begin)
+				current = current.left;
+			// else could overlap with right subtree
+			else
+				current = current.right;
 		}
-		// if max of left child >= to interval, may overlap with interval in left subtree
-		else if(current.left != null && current.left.max.compareTo(value.beginDate) >= 0)
-			return findOverlap(current.left, value);
-		// else could overlap with right subtree
-		return findOverlap(current.right, value);
+		return null;
 	}
 	
 	/**
 	 * Removes a given node from the tree
 	 * 
+	 * Red-black delete from Cormen (RB-DELETE, section 13.4). The node's
+	 *   successor is moved into its place instead of copying values around, so
+	 *   references to other nodes stay valid.
+	 * 
+	 * O(logN)
+	 * 
 	 * @param node = the node to remove
 	 */
 	public void remove(MeetingIntervalNode node) {
-		root = removeHelper(root, node);
-		if(root != null) {
-			root.parent = null;
-			if(root.color == 'R') root.color = 'B';
-			deletionFixUp(node);
-			// need to fix dayMaxes in case any ancestors contain info about the deleted node
-			if(node.parent != null) node.parent.recalculateMax();
+		MeetingIntervalNode moved = node; // the node that is actually taken out of its spot
+		char movedColor = moved.color;
+		MeetingIntervalNode child, childParent; // what moves into moved's old spot
+		
+		if(node.left == null) {
+			child = node.right;
+			childParent = node.parent;
+			transplant(node, node.right);
 		}
+		else if(node.right == null) {
+			child = node.left;
+			childParent = node.parent;
+			transplant(node, node.left);
+		}
+		else {
+			// 2 children, so the successor takes node's place
+			moved = findSmallestValue(node.right);
+			movedColor = moved.color;
+			child = moved.right;
+			if(moved.parent == node) {
+				childParent = moved;
+			}
+			else {
+				childParent = moved.parent;
+				transplant(moved, moved.right);
+				moved.right = node.right;
+				moved.right.parent = moved;
+			}
+			transplant(node, moved);
+			moved.left = node.left;
+			moved.left.parent = moved;
+			moved.color = node.color;
+			// moved starts with node's maxes so the nodes above it still agree with it
+			moved.copyMax(node);
+		}
+		node.parent = node.left = node.right = null;
+		size--;
+		
+		// need to fix maxes and dayMaxes in case any ancestors contain info about the deleted node
+		// (both where moved was taken from and where node was)
+		if(childParent != null) augmentationVisits += childParent.recalculateMax();
+		if(moved != node) augmentationVisits += moved.recalculateMax();
+		// childParent is moved or below it, so this fixes every count that changed
+		if(childParent != null) childParent.recalculateCount();
+		if(movedColor == 'B') deletionFixUp(child, childParent);
 	}
 	
 	/**
 	 * Removes a list of intervals from the tree
 	 * 
+	 * If it's a big part of the tree (like a company-wide vacation), the rest
+	 *   of the tree is rebuilt in O(N) instead, which is cheaper than that many
+	 *   removes and fixups. Then none of the old nodes are in the tree anymore.
+	 * 
 	 * @param meetings = the list of intervals to remove
 	 */
 	public void removeList(List<MeetingIntervalNode> meetings) {
+		if(meetings.size() >= REBUILD_FRACTION && meetings.size() >= size / REBUILD_FRACTION) {
+			rebuildWithout(meetings);
+			return;
+		}
 		for(MeetingIntervalNode meeting : meetings) {
 			remove(meeting);
 		}
 	}
 	
 	/**
-	 * Recursively removes the given node
+	 * Rebuilds the tree out of every node except the removed ones
 	 * 
-	 * @param current = the current node
-	 * @param node = the node to remove
-	 * @return the removed node
+	 * @param removed = nodes in the tree to leave out
 	 */
-	public MeetingIntervalNode removeHelper(MeetingIntervalNode current, MeetingIntervalNode node) {
-		if(current == null)
-			return null;
-		
-		if(node.equals(current)) {
-			// remove node (4 cases)
-			// (1) leaf node
-			if(current.left == null && current.right == null)
-				return null;
-			// (2) no right child
-			else if(current.right == null)
-				return current.left;
-			// (3) no left child
-			else if(current.left == null)
-				return current.left;
-			// (4) 2 children
-			else {
-				// find smallest value in right subtree to replace the node
-				MeetingIntervalNode smallest = findSmallestValue(current.right);
-				smallest.left = current.left;
-//				smallest.right = current.right;
-				current = smallest;
-				current.right = removeHelper(current.right, smallest);
-				return current;
+	private void rebuildWithout(List<MeetingIntervalNode> removed) {
+		// nodes compare equal by value, so they have to be looked up by identity
+		Set<MeetingIntervalNode> skip = Collections.newSetFromMap(new IdentityHashMap<MeetingIntervalNode, Boolean>());
+		skip.addAll(removed);
+		long[] kept = new long[size];
+		int count = 0;
+		// in order, so kept is sorted by beginDate
+		Deque<MeetingIntervalNode> stack = new ArrayDeque<MeetingIntervalNode>();
+		MeetingIntervalNode current = root;
+		while(current != null || !stack.isEmpty()) {
+			while(current != null) {
+				stack.push(current);
+				current = current.left;
 			}
+			current = stack.pop();
+			if(!skip.contains(current)) kept[count++] = current.value.packed;
+			current = current.right;
 		}
-		
-		// if max of left child >= to interval, may overlap with interval in left subtree
-		if(current.left != null && current.left.max.compareTo(node.value.beginDate) >= 0)
-			current.left = removeHelper(current.left, node);
-		
-		// else could overlap with right subtree
-		current.right = removeHelper(current.right, node);
-		
-		return current;
+		for(MeetingIntervalNode node : removed) {
+			node.parent = node.left = node.right = null;
+		}
+		rebuild(kept, count);
+	}
+	
+	/**
+	 * Replaces the subtree at oldNode with the subtree at newNode
+	 * 
+	 * @param oldNode = the node being replaced
+	 * @param newNode = the node taking its place (can be null)
+	 */
+	private void transplant(MeetingIntervalNode oldNode, MeetingIntervalNode newNode) {
+		if(oldNode.parent == null)
+			root = newNode;
+		else if(oldNode == oldNode.parent.left)
+			oldNode.parent.left = newNode;
+		else
+			oldNode.parent.right = newNode;
+		if(newNode != null)
+			newNode.parent = oldNode.parent;
 	}
 	
-	/** Recursively fixes up the colors after a deletion into the tree
+	/** Fixes up the colors after a deletion from the tree
+	  * 
+	  * node has an extra black. It is moved up the tree until it can be
+	  *   absorbed by a red node or fixed with rotations. node can be null (an
+	  *   empty leaf), so its parent is passed in too.
 	  *
-	  * @param node = The current node
+	  * @param node = the node that took the removed node's place
+	  * @param parent = node's parent
 	  */
-	private void deletionFixUp(MeetingIntervalNode node) {
-		while(true) {
-			if(node == null) return;
-			if(root == node) break;
-			if(node != null && node.color == 'R') break;
-			if(sibling(node) != null && sibling(node).color == 'R') {
-				parent(node).color = 'R';
-				sibling(node).color = 'B';
-				rotate(sibling(node));
-				// should have black sibling now
-			}
-			else if(nephew(node) != null && nephew(node).color == 'R') {
-				sibling(node).color = node.parent.color;
-				parent(node).color = 'B';
-				nephew(node).color = 'B';
-				rotate(sibling(node));
-				// subtree and tree is BH balanced
-				break;
-			}
-			else if(niece(node) != null && niece(node).color == 'R') {
-				// nephew is black
-				niece(node).color = 'B';
-				sibling(node).color = 'R';
-				rotate(niece(node));
-				// should have red nephew now
+	private void deletionFixUp(MeetingIntervalNode node, MeetingIntervalNode parent) {
+		while(node != root && getColor(node) == 'B') {
+			if(node == parent.left) {
+				MeetingIntervalNode sibling = parent.right;
+				if(getColor(sibling) == 'R') {
+					sibling.color = 'B';
+					parent.color = 'R';
+					leftRotate(parent);
+					sibling = parent.right;
+				}
+				if(getColor(sibling.left) == 'B' && getColor(sibling.right) == 'B') {
+					sibling.color = 'R';
+					node = parent;
+					parent = node.parent;
+				}
+				else {
+					if(getColor(sibling.right) == 'B') {
+						sibling.left.color = 'B';
+						sibling.color = 'R';
+						rightRotate(sibling);
+						sibling = parent.right;
+					}
+					sibling.color = parent.color;
+					parent.color = 'B';
+					sibling.right.color = 'B';
+					leftRotate(parent);
+					node = root;
+				}
 			}
-			else { // sibling,niece, and nephew are black
-				if(sibling(node) != null)
-					sibling(node).color = 'R';
-				node = parent(node);
-				// Subtree is BH balanced but tree is not
+			else {
+				MeetingIntervalNode sibling = parent.left;
+				if(getColor(sibling) == 'R') {
+					sibling.color = 'B';
+					parent.color = 'R';
+					rightRotate(parent);
+					sibling = parent.left;
+				}
+				if(getColor(sibling.left) == 'B' && getColor(sibling.right) == 'B') {
+					sibling.color = 'R';
+					node = parent;
+					parent = node.parent;
+				}
+				else {
+					if(getColor(sibling.left) == 'B') {
+						sibling.right.color = 'B';
+						sibling.color = 'R';
+						leftRotate(sibling);
+						sibling = parent.left;
+					}
+					sibling.color = parent.color;
+					parent.color = 'B';
+					sibling.left.color = 'B';
+					rightRotate(parent);
+					node = root;
+				}
 			}
 		}
-		node.color = 'B';
+		if(node != null) node.color = 'B';
 	}
 	
 	/**
 	 * finds successor
 	 * 
-	 * @param root = the current node
+	 * @param root = the root of the subtree
 	 */
 	private MeetingIntervalNode findSmallestValue(MeetingIntervalNode root) {
-		return root.left == null ? root : findSmallestValue(root.left);
+		while(root.left != null) root = root.left;
+		return root;
 	}
 	
 	
@@ -334,6 +702,29 @@ public class MeetingIntervalTree {
 		System.out.println("************");
 	}
 	
+	/**
+	 * @return every interval in the tree, sorted by beginDate
+	 */
+	public List<MeetingInterval> toList() {
+		List<MeetingInterval> intervals = new ArrayList<MeetingInterval>();
+		toList(root, intervals);
+		return intervals;
+	}
+	
+	private void toList(MeetingIntervalNode root, List<MeetingInterval> intervals) {
+		Deque<MeetingIntervalNode> stack = new ArrayDeque<MeetingIntervalNode>();
+		MeetingIntervalNode current = root;
+		while(current != null || !stack.isEmpty()) {
+			while(current != null) {
+				stack.push(current);
+				current = current.left;
+			}
+			current = stack.pop();
+			intervals.add(current.value);
+			current = current.right;
+		}
+	}
+	
 	// passing in a function might be nice here
 	public void inorder(MeetingIntervalNode root) {
 		if(root == null) return;
@@ -392,8 +783,10 @@ public class MeetingIntervalTree {
 		y.left = x;
 		x.parent = y;
 		
-		x.recalculateMax();
-		y.recalculateMax();
+		// y's subtree has the same intervals x's had, so nothing above y changes (maxes or counts)
+		x.update();
+		y.update();
+		augmentationVisits += 2;
 	}
 	
 	/**
@@ -418,8 +811,10 @@ public class MeetingIntervalTree {
 		y.right = x;
 		x.parent = y;
 		
-		x.recalculateMax();
-		y.recalculateMax();
+		// y's subtree has the same intervals x's had, so nothing above y changes (maxes or counts)
+		x.update();
+		y.update();
+		augmentationVisits += 2;
 	}
 	
 		public boolean isLinear(MeetingIntervalNode node) {
@@ -0,0 +1,210 @@
+package countMeetings.helpers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the meeting count of a csv file up to date while rows are appended to it
+ *
+ * Instead of reading the whole file again every time it changes, this remembers
+ *   the byte offset it has read up to and only parses the rows after it. New
+ *   meetings are inserted into a long-lived MeetingIntervalTree and new vacations
+ *   are removed from it, so an update costs about as much as the rows appended.
+ *
+ * Vacations apply to every meeting no matter where they are in the file (like
+ *   CountMeetingsFull), so the vacations seen so far are kept and every new
+ *   meeting is split on them before it is inserted. O(V) per new meeting, but
+ *   there are only ever a handful of vacations.
+ *
+ * A row is only read once its newline has been written. If the file gets shorter
+ *   (eg. it was replaced), everything is read again from the start.
+ *
+ * Malformed rows are skipped instead of stopping the tailer. They are counted
+ *   (getRejectedRows) and handed to the RejectHandler if one is set.
+ *
+ * @author Alex Lay
+ */
+public class MeetingTailer {
+	/**
+	 * Receives the new count every time the file changes
+	 */
+	public interface CountListener {
+		void countUpdated(int count);
+	}
+
+	// how long watch waits for a file event before checking if it was stopped
+	private static final long WATCH_TIMEOUT_MILLIS = 200;
+
+	private final Path csvPath;
+	private MeetingIntervalTree tree;
+	private List<MeetingInterval> vacations;
+	private CSVScanner scanner;
+	private long offset;
+	private long rejected;
+	private CSVScanner.RejectHandler rejectHandler;
+	private volatile boolean isWatching;
+
+	public MeetingTailer(String csvPath) {
+		this.csvPath = Paths.get(csvPath);
+		reset();
+	}
+
+	private void reset() {
+		tree = new MeetingIntervalTree();
+		vacations = new ArrayList<MeetingInterval>();
+		scanner = new CSVScanner();
+		scanner.setRejectHandler((row, buffer, from, to, reason) -> {
+			rejected++;
+			if(rejectHandler != null) rejectHandler.rejectRow(row, buffer, from, to, reason);
+		});
+		offset = 0;
+		rejected = 0;
+	}
+
+	/**
+	 * @param rejectHandler = receives every malformed row as it is skipped (null for none)
+	 */
+	public synchronized void setRejectHandler(CSVScanner.RejectHandler rejectHandler) {
+		this.rejectHandler = rejectHandler;
+	}
+
+	/**
+	 * Reads the rows that were appended since the last poll
+	 *
+	 * O(D log N) where D is the number of new rows
+	 *
+	 * @return the number of meetings in the file
+	 * @throws IOException if the file can't be read
+	 */
+	public synchronized int poll() throws IOException {
+		try(FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size < offset) {
+				reset();
+			}
+			while(offset < size) {
+				long length = Math.min(size - offset, CSVScanner.MAP_WINDOW);
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, length);
+				int end = lastRowEnd(buffer, (int) length);
+				if(end == 0) break; // no complete rows yet
+				int begin = offset == 0 ? CSVScanner.skipBOM(buffer, 0, end) : 0;
+				scanner.scan(buffer, begin, end, this::apply);
+				offset += end;
+			}
+		}
+		return getCount();
+	}
+
+	/**
+	 * Adds one new row to the tree
+	 */
+	private void apply(MeetingInterval interval) {
+		if(interval.dayOfTheWeek == null) {
+			vacations.add(interval);
+			tree.removeVacation(interval);
+			return;
+		}
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		meetings.add(interval);
+		for(MeetingInterval vacation : vacations) {
+			List<MeetingInterval> split = new ArrayList<MeetingInterval>();
+			for(MeetingInterval meeting : meetings) {
+				if(meeting.overlaps(vacation))
+					split.addAll(meeting.split(vacation));
+				else
+					split.add(meeting);
+			}
+			meetings = split;
+		}
+		tree.insertList(meetings);
+	}
+
+	/**
+	 * @return the index after the last newline in the buffer (0 if there isn't one)
+	 */
+	private static int lastRowEnd(ByteBuffer buffer, int length) {
+		for(int x = length - 1; x >= 0; x--) {
+			if(buffer.get(x) == '\n') return x + 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Watches the file with a WatchService and polls it every time it changes
+	 * Blocks until stop is called (from another thread)
+	 *
+	 * @param listener = receives the count at the start and after every change
+	 * @throws IOException if the file can't be read or watched
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public void watch(CountListener listener) throws IOException, InterruptedException {
+		isWatching = true;
+		try(WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			Path directory = csvPath.toAbsolutePath().getParent();
+			directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			listener.countUpdated(poll());
+
+			while(isWatching) {
+				WatchKey key = watcher.poll(WATCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				if(key == null) continue;
+
+				boolean isChanged = false;
+				for(WatchEvent<?> event : key.pollEvents()) {
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW || csvPath.getFileName().equals(event.context())) {
+						isChanged = true;
+					}
+				}
+				key.reset();
+				if(isChanged) {
+					long oldOffset = offset;
+					int count = poll();
+					if(offset != oldOffset) {
+						listener.countUpdated(count);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes watch return
+	 */
+	public void stop() {
+		isWatching = false;
+	}
+
+	// ************** get functions **********************
+
+	public synchronized int getCount() {
+		return tree.countMeetings(tree.getRoot());
+	}
+
+	public synchronized long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the number of malformed rows skipped since the file was last read from the start
+	 */
+	public synchronized long getRejectedRows() {
+		return rejected;
+	}
+
+	public MeetingIntervalTree getTree() {
+		return tree;
+	}
+}
@@ -0,0 +1,241 @@
+package countMeetings.helpers;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Packs an interval into a single long so it can be counted and compared with
+ *   plain arithmetic (no LocalDate, no DayOfWeek, no allocation)
+ *
+ * Layout...
+ *   bits 32-60   epoch day of the beginDate (+ BIAS)
+ *   bits 3-31    epoch day of the endDate (+ BIAS)
+ *   bits 0-2     ISO day of the week (1 = Monday ... 7 = Sunday) or 0 for a vacation
+ *
+ * The bias keeps both dates positive, so packed intervals sort by beginDate, then
+ *   endDate, then day of the week just by comparing the longs. Dates have to be
+ *   within about 735,000 years of 1970.
+ *
+ * @author Alex Lay
+ */
+public final class PackedInterval {
+	public static final int VACATION = 0;
+	// returned by before/after when nothing is left of the meeting
+	public static final long EMPTY = -1L;
+
+	static final int DATE_BITS = 29;
+	static final int BIAS = 1 << (DATE_BITS - 1);
+	private static final long DATE_MASK = (1L << DATE_BITS) - 1;
+	private static final int BEGIN_SHIFT = 32;
+	private static final int END_SHIFT = 3;
+	private static final long DAY_MASK = 7;
+
+	private PackedInterval() {}
+
+	/**
+	 * @param beginEpochDay = the first day of the interval
+	 * @param endEpochDay = the last day of the interval
+	 * @param isoDay = the day of the week (1 = Monday) or VACATION
+	 * @return the packed interval
+	 * @throws DateTimeException if a date is too far from 1970
+	 */
+	public static long pack(long beginEpochDay, long endEpochDay, int isoDay) {
+		return (bias(beginEpochDay) << BEGIN_SHIFT) | (bias(endEpochDay) << END_SHIFT) | (isoDay & DAY_MASK);
+	}
+
+	public static long pack(LocalDate begin, LocalDate end, DayOfWeek day) {
+		return pack(begin.toEpochDay(), end.toEpochDay(), day == null ? VACATION : day.getValue());
+	}
+
+	private static long bias(long epochDay) {
+		long biased = epochDay + BIAS;
+		if((biased & ~DATE_MASK) != 0) {
+			throw new DateTimeException("Date is out of range: epoch day " + epochDay);
+		}
+		return biased;
+	}
+
+	/**
+	 * @return the packed interval as a MeetingInterval
+	 */
+	public static MeetingInterval unpack(long packed) {
+		return new MeetingInterval(LocalDate.ofEpochDay(begin(packed)), LocalDate.ofEpochDay(end(packed)),
+				isVacation(packed) ? null : DayOfWeek.of(day(packed)));
+	}
+
+	// ************** fields **********************
+
+	public static int begin(long packed) {
+		return (int) (((packed >>> BEGIN_SHIFT) & DATE_MASK) - BIAS);
+	}
+
+	public static int end(long packed) {
+		return (int) (((packed >>> END_SHIFT) & DATE_MASK) - BIAS);
+	}
+
+	public static int day(long packed) {
+		return (int) (packed & DAY_MASK);
+	}
+
+	public static boolean isVacation(long packed) {
+		return (packed & DAY_MASK) == VACATION;
+	}
+
+	/**
+	 * @return packed with a new beginDate and endDate (the day of the week stays)
+	 */
+	public static long withDates(long packed, long beginEpochDay, long endEpochDay) {
+		return pack(beginEpochDay, endEpochDay, day(packed));
+	}
+
+	// ************** arithmetic **********************
+
+	/**
+	 * Same as MeetingInterval.getMeetingCount
+	 *
+	 * O(1)
+	 *
+	 * @return the number of meetings in the interval (0 for a vacation)
+	 */
+	public static int countMeetings(long packed) {
+		if(isVacation(packed)) return 0;
+		return countMeetings(begin(packed), end(packed), day(packed));
+	}
+
+	/**
+	 * Fast-forwards from beginEpochDay to the first isoDay and counts the weeks to endEpochDay
+	 *
+	 * @param beginEpochDay = the first day of the interval
+	 * @param endEpochDay = the last day of the interval
+	 * @param isoDay = the day of the week the meeting is on (1 = Monday)
+	 * @return the number of times isoDay occurs between beginEpochDay and endEpochDay
+	 */
+	public static int countMeetings(int beginEpochDay, int endEpochDay, int isoDay) {
+		int first = beginEpochDay + Math.floorMod(isoDay - dayOfWeek(beginEpochDay), 7);
+		if(first > endEpochDay) return 0;
+		return (endEpochDay - first) / 7 + 1;
+	}
+
+	/**
+	 * 1970-01-01 was a Thursday
+	 *
+	 * @return the ISO day of the week of an epoch day (1 = Monday)
+	 */
+	public static int dayOfWeek(long epochDay) {
+		return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+	}
+
+	/**
+	 * Same as MeetingInterval.overlaps
+	 * Two meetings only overlap if they are on the same day of the week. A vacation
+	 *   overlaps anything it shares a date with.
+	 */
+	public static boolean overlaps(long a, long b) {
+		int dayA = day(a), dayB = day(b);
+		if(dayA != VACATION && dayB != VACATION && dayA != dayB) return false;
+		return begin(b) <= end(a) && begin(a) <= end(b);
+	}
+
+	/**
+	 * Same as MeetingInterval.merge
+	 *
+	 * @return an interval covering both a and b, on a's day of the week
+	 */
+	public static long merge(long a, long b) {
+		return pack(Math.min(begin(a), begin(b)), Math.max(end(a), end(b)), day(a));
+	}
+
+	/**
+	 * The part of meeting before the vacation (first half of MeetingInterval.split)
+	 *
+	 * @return the packed interval or EMPTY if the vacation covers the beginning
+	 */
+	public static long before(long meeting, long vacation) {
+		if(begin(vacation) <= begin(meeting)) return EMPTY;
+		return withDates(meeting, begin(meeting), Math.min(end(meeting), begin(vacation) - 1L));
+	}
+
+	/**
+	 * The part of meeting after the vacation (second half of MeetingInterval.split)
+	 *
+	 * @return the packed interval or EMPTY if the vacation covers the end
+	 */
+	public static long after(long meeting, long vacation) {
+		if(end(vacation) >= end(meeting)) return EMPTY;
+		return withDates(meeting, Math.max(begin(meeting), end(vacation) + 1L), end(meeting));
+	}
+
+	/**
+	 * Same as MeetingInterval.split, but writes into out instead of allocating a list
+	 *
+	 * @param meeting = the meeting to split (should overlap with vacation)
+	 * @param vacation = the vacation to split the meeting on
+	 * @param out = gets the 0, 1 or 2 pieces that are left (needs room for 2)
+	 * @return the number of pieces written to out
+	 */
+	public static int split(long meeting, long vacation, long[] out) {
+		int pieces = 0;
+		long before = before(meeting, vacation);
+		if(before != EMPTY) out[pieces++] = before;
+		long after = after(meeting, vacation);
+		if(after != EMPTY) out[pieces++] = after;
+		return pieces;
+	}
+
+	/**
+	 * Merges overlapping meetings the same way inserting them one at a time into
+	 *   an interval tree would, and sorts what's left by beginDate
+	 *
+	 * (1) Sorts by (day of the week, beginDate) so each day's meetings are together
+	 * (2) Merges each run of overlapping meetings on the same day in one sweep
+	 * (3) Sorts the merged meetings by beginDate
+	 *
+	 * O(NlogN) for the sorts, no objects made
+	 *
+	 * @param meetings = packed meetings (no vacations); overwritten with the result
+	 * @param n = how many of them to use
+	 * @return the number of merged meetings now at the start of meetings
+	 */
+	public static int coalesce(long[] meetings, int n) {
+		// day on top (bits 58-60), then begin and end
+		for(int x = 0; x < n; x++) {
+			meetings[x] = ((meetings[x] & DAY_MASK) << KEY_DAY_SHIFT) | (meetings[x] >>> END_SHIFT);
+		}
+		Arrays.sort(meetings, 0, n);
+
+		int count = 0;
+		for(int x = 0; x < n; ) {
+			long first = unkey(meetings[x]);
+			int day = day(first);
+			int begin = begin(first);
+			int end = end(first);
+			for(x++; x < n; x++) {
+				long next = unkey(meetings[x]);
+				if(day(next) != day || begin(next) > end) break;
+				end = Math.max(end, end(next));
+			}
+			// count <= x - 1, so this never overwrites a key that hasn't been read
+			meetings[count++] = pack(begin, end, day);
+		}
+		// begin is in the top bits, so this sorts by beginDate
+		Arrays.sort(meetings, 0, count);
+		return count;
+	}
+
+	private static final int KEY_DAY_SHIFT = BEGIN_SHIFT + DATE_BITS - END_SHIFT;
+	private static final long KEY_INTERVAL = (1L << KEY_DAY_SHIFT) - 1;
+
+	/**
+	 * @return the packed interval a coalesce sort key was made from
+	 */
+	private static long unkey(long key) {
+		return ((key & KEY_INTERVAL) << END_SHIFT) | (key >>> KEY_DAY_SHIFT);
+	}
+
+	public static String toString(long packed) {
+		return LocalDate.ofEpochDay(begin(packed)) + " to " + LocalDate.ofEpochDay(end(packed))
+				+ (isVacation(packed) ? " (vacation)" : " every " + DayOfWeek.of(day(packed)));
+	}
+}
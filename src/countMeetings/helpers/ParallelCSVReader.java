@@ -0,0 +1,301 @@
+package countMeetings.helpers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads a csv file on several threads at once
+ *
+ * The file is split into byte ranges that start and end on a newline. Each range
+ *   is memory-mapped and scanned by a CSVScanner on a ForkJoinPool worker, and the
+ *   results are combined in file order. So the lists returned are the same as the
+ *   ones CSVReader returns, they just come back faster on a machine with many cores.
+ *
+ * A chunk doesn't know how many rows came before it, so it scans with row numbers
+ *   starting at 0. If it finds a bad row, the rows before the chunk are counted
+ *   and the chunk is scanned again from there, so the error has the row's number
+ *   in the file (like CSVReader). That only happens once, when the read fails.
+ *
+ * Gzipped files can't be split, so they are read on one thread.
+ *
+ * @author Alex Lay
+ */
+public class ParallelCSVReader {
+	// chunks are never smaller than this so small files don't get split up for nothing
+	static final long MIN_CHUNK_SIZE = 1 << 20;
+	// how many chunks each worker gets (more chunks = better load balancing)
+	static final int CHUNKS_PER_WORKER = 4;
+
+	private final ForkJoinPool pool;
+
+	public ParallelCSVReader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public ParallelCSVReader(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Parallel version of CSVReader.readMeetingsBasic
+	 *
+	 * @param csvPath is the path to a csv file
+	 * @return a list of MeetingInterval objects
+	 */
+	public List<MeetingInterval> readMeetingsBasic(String csvPath) {
+		ChunkResult result = read(csvPath, false, false);
+		return result == null ? new ArrayList<MeetingInterval>() : result.meetings;
+	}
+
+	/**
+	 * Parallel version of CSVReader.readMeetingsFull
+	 *
+	 * @param csvPath is the path to a csv file containing meeting information
+	 * @return two arraylists, one with meetings and the other with vacations/holidays
+	 */
+	public List[] readMeetingsFull(String csvPath) {
+		ChunkResult result = read(csvPath, true, false);
+		if(result == null) {
+			return new List[] { new ArrayList<MeetingInterval>(), new ArrayList<MeetingInterval>() };
+		}
+		return new List[] { result.meetings, result.vacations };
+	}
+
+	/**
+	 * Counts the meetings in a basic csv file without building any lists.
+	 * Each chunk keeps its own partial count and the counts are added together.
+	 *
+	 * @param csvPath is the path to a csv file
+	 * @return the total number of meetings, or -1 if the file couldn't be read
+	 */
+	public long countMeetingsBasic(String csvPath) {
+		ChunkResult result = read(csvPath, false, true);
+		return result == null ? -1 : result.count;
+	}
+
+	/**
+	 * Splits the file into chunks and scans them on the pool
+	 *
+	 * @return the combined result of every chunk or null if the file couldn't be read
+	 */
+	private ChunkResult read(String csvPath, boolean isFull, boolean isCount) {
+		try {
+			if(CSVScanner.isCompressed(csvPath)) {
+				// a gzip stream can't be split, so it's read on this thread
+				ChunkResult result = new ChunkResult();
+				CSVScanner scanner = new CSVScanner();
+				scanner.scanFile(csvPath, result.handler(scanner, isFull, isCount));
+				return result.finish();
+			}
+			try(FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ)) {
+				long[] boundaries = chunkBoundaries(channel, pool.getParallelism() * CHUNKS_PER_WORKER);
+				return pool.invoke(new ChunkTask(channel, boundaries, 0, boundaries.length - 1, isFull, isCount));
+			}
+		}
+		catch(FileNotFoundException | NoSuchFileException e) {
+			System.out.print("Couldn't find file.");
+			e.printStackTrace();
+		}
+		catch(IOException | UncheckedIOException e) {
+			System.out.print("Problem reading from file.");
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Finds where each chunk starts. Every boundary (except 0 and the file size)
+	 *   is the byte right after a newline.
+	 *
+	 * @param channel = the csv file
+	 * @param chunks = the number of chunks wanted
+	 * @return the sorted chunk boundaries, starting with 0 and ending with the file size
+	 * @throws IOException if the file can't be read
+	 */
+	static long[] chunkBoundaries(FileChannel channel, int chunks) throws IOException {
+		long size = channel.size();
+		long chunkSize = Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / Math.max(chunks, 1));
+		chunkSize = Math.min(chunkSize, CSVScanner.MAP_WINDOW);
+
+		List<Long> boundaries = new ArrayList<Long>();
+		boundaries.add(0L);
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long position = chunkSize;
+		while(position < size) {
+			long newline = nextNewline(channel, buffer, position);
+			if(newline < 0 || newline + 1 >= size) break;
+			boundaries.add(newline + 1);
+			position = newline + 1 + chunkSize;
+		}
+		boundaries.add(size);
+
+		long[] result = new long[boundaries.size()];
+		for(int x = 0; x < result.length; x++) {
+			result[x] = boundaries.get(x);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the rows (newlines) before end
+	 *
+	 * O(end)
+	 */
+	static long countRows(FileChannel channel, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		long rows = 0;
+		for(long position = 0; position < end; ) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), end - position));
+			int read = channel.read(buffer, position);
+			if(read <= 0) break;
+			for(int x = 0; x < read; x++) {
+				if(buffer.get(x) == '\n') rows++;
+			}
+			position += read;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the position of the first newline at or after position, or -1 if there isn't one
+	 */
+	private static long nextNewline(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(true) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if(read <= 0) return -1;
+			for(int x = 0; x < read; x++) {
+				if(buffer.get(x) == '\n') return position + x;
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * What one or more chunks of the file contained
+	 */
+	private static class ChunkResult {
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+		long count = 0;
+		MeetingCounter counter = null;
+
+		/**
+		 * @return a handler that adds every row to this result
+		 */
+		CSVScanner.RowHandler handler(CSVScanner scanner, boolean isFull, boolean isCount) {
+			if(isCount) {
+				counter = new MeetingCounter();
+				// checked here so the error has the scanner's row number, not the counter's
+				return interval -> {
+					if(interval.dayOfTheWeek == null) {
+						throw new IOException("Invalid input file format on row " + scanner.getRow() + ".");
+					}
+					counter.handleRow(interval);
+				};
+			}
+			return interval -> {
+				if(interval.dayOfTheWeek != null)
+					meetings.add(interval);
+				else if(isFull)
+					vacations.add(interval);
+				else
+					throw new IOException("Invalid input file format on row " + scanner.getRow() + ".");
+			};
+		}
+
+		/**
+		 * Call after scanning so the counter's total is added to count
+		 */
+		ChunkResult finish() {
+			if(counter != null) {
+				count += counter.getTotal();
+				counter = null;
+			}
+			return this;
+		}
+
+		// right comes after this in the file
+		ChunkResult combine(ChunkResult right) {
+			meetings.addAll(right.meetings);
+			vacations.addAll(right.vacations);
+			count += right.count;
+			return this;
+		}
+	}
+
+	/**
+	 * Scans the chunks between boundaries[lo] and boundaries[hi]
+	 * Splits in half until there is only one chunk left
+	 */
+	private static class ChunkTask extends RecursiveTask<ChunkResult> {
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final long[] boundaries;
+		private final int lo, hi;
+		private final boolean isFull, isCount;
+
+		ChunkTask(FileChannel channel, long[] boundaries, int lo, int hi, boolean isFull, boolean isCount) {
+			this.channel = channel;
+			this.boundaries = boundaries;
+			this.lo = lo;
+			this.hi = hi;
+			this.isFull = isFull;
+			this.isCount = isCount;
+		}
+
+		@Override
+		protected ChunkResult compute() {
+			if(hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				ChunkTask left = new ChunkTask(channel, boundaries, lo, mid, isFull, isCount);
+				ChunkTask right = new ChunkTask(channel, boundaries, mid, hi, isFull, isCount);
+				left.fork();
+				ChunkResult rightResult = right.compute();
+				return left.join().combine(rightResult);
+			}
+			try {
+				return scanChunk();
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private ChunkResult scanChunk() throws IOException {
+			ChunkResult result = new ChunkResult();
+			long start = boundaries[lo];
+			int length = (int) (boundaries[hi] - start);
+			if(length == 0) return result;
+
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, length);
+			int from = start == 0 ? CSVScanner.skipBOM(buffer, 0, length) : 0;
+			CSVScanner scanner = new CSVScanner();
+			try {
+				scanner.scan(buffer, from, length, result.handler(scanner, isFull, isCount));
+			}
+			catch(IOException e) {
+				if(start == 0) throw e;
+				// scan again with the rows before this chunk so the error has the right row number
+				CSVScanner rebased = new CSVScanner(countRows(channel, start));
+				rebased.scan(buffer, from, length, new ChunkResult().handler(rebased, isFull, isCount));
+				throw e;
+			}
+			return result.finish();
+		}
+	}
+}
@@ -0,0 +1,502 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An interval tree whose nodes never change, so a snapshot of it is just a
+ *   reference to its root
+ *
+ * Updates copy the nodes on the path from the root down to the change and
+ *   share everything else with the old version (path copying). The new root is
+ *   then published with one volatile write, so...
+ *   - snapshot() is O(1) and the snapshot never sees any later update
+ *   - countMeetings, findOverlap, etc. never lock and always see one whole version
+ *   - old versions are garbage collected once no snapshot refers to them
+ * Snapshots are trees too, and updating one doesn't change the tree it came from.
+ *
+ * Keeping a red-black tree balanced with path copying is messy (deletes and
+ *   rotations touch nodes off the path), so this is a treap instead: ordered
+ *   by the packed interval (beginDate first) and a heap on a priority hashed from
+ *   it. Expected depth is O(logN), and insert and remove only ever rebuild the
+ *   path they walk down.
+ *
+ * Nodes keep the same augmentations as MeetingIntervalNode (max, dayMaxes and
+ *   the meeting counts) so searches and counts work the same way.
+ *
+ * Only one thread should update a tree at a time; any number can read it.
+ *
+ * @author Alex Lay
+ */
+public class PersistentMeetingIntervalTree implements MeetingIndex {
+	// smaller than any epoch day, so a weekday that isn't in a subtree never looks like an overlap
+	private static final int NO_DAY = Integer.MIN_VALUE;
+
+	private volatile Node root;
+
+	public PersistentMeetingIntervalTree() {
+		this(null);
+	}
+
+	private PersistentMeetingIntervalTree(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * O(1)
+	 *
+	 * @return a tree with the current version of this one (later updates to either don't show up in the other)
+	 */
+	public PersistentMeetingIntervalTree snapshot() {
+		return new PersistentMeetingIntervalTree(root);
+	}
+
+	/**
+	 * @return the number of nodes (merged intervals) in the tree
+	 */
+	public int size() {
+		Node current = root;
+		return current == null ? 0 : current.size;
+	}
+
+	// ************** updates **********************
+
+	/**
+	 * Inserts a meeting, merging it with every meeting it overlaps
+	 *
+	 * O(logN + K) (expected) where K is the number of meetings it overlaps
+	 *
+	 * @param m = the meeting to insert
+	 */
+	@Override
+	public void insert(MeetingInterval m) {
+		checkMeeting(m);
+		root = insertMerging(root, m.packed);
+	}
+
+	/**
+	 * Inserts a list of meetings and then publishes the new version all at once
+	 *
+	 * If the list is at least as big as the tree, the tree is rebuilt with them
+	 *   in O(N) after a sort (see build).
+	 *
+	 * @param meetings = the meetings to insert
+	 */
+	@Override
+	public void insertList(List<MeetingInterval> meetings) {
+		for(MeetingInterval m : meetings) {
+			checkMeeting(m);
+		}
+		Node current = root;
+		if(meetings.size() >= (current == null ? 0 : current.size)) {
+			long[] packed = new long[(current == null ? 0 : current.size) + meetings.size()];
+			int n = inorder(current, packed);
+			for(MeetingInterval m : meetings) {
+				packed[n++] = m.packed;
+			}
+			root = build(packed, PackedInterval.coalesce(packed, n));
+			return;
+		}
+		for(MeetingInterval m : meetings) {
+			current = insertMerging(current, m.packed);
+		}
+		root = current;
+	}
+
+	/**
+	 * Cuts a vacation out of every meeting it overlaps
+	 *
+	 * O(K logN) (expected) where K is the number of meetings it overlaps
+	 *
+	 * @param vacation = the vacation to remove
+	 */
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		root = removeVacation(root, vacation.packed);
+	}
+
+	/**
+	 * Removes every vacation and then publishes the new version all at once
+	 *
+	 * @param vacations = the vacations to remove
+	 */
+	@Override
+	public void removeVacations(List<MeetingInterval> vacations) {
+		Node current = root;
+		for(MeetingInterval vacation : vacations) {
+			current = removeVacation(current, vacation.packed);
+		}
+		root = current;
+	}
+
+	private static void checkMeeting(MeetingInterval m) {
+		if(m.packed == PackedInterval.EMPTY || PackedInterval.isVacation(m.packed)) {
+			throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+		}
+	}
+
+	/**
+	 * @return the version of root with packed (and everything it overlaps, merged) inserted
+	 */
+	private static Node insertMerging(Node root, long packed) {
+		int begin = PackedInterval.begin(packed), end = PackedInterval.end(packed), day = PackedInterval.day(packed);
+		for(long overlap : collectOverlaps(root, begin, end, day)) {
+			begin = Math.min(begin, PackedInterval.begin(overlap));
+			end = Math.max(end, PackedInterval.end(overlap));
+			root = remove(root, overlap);
+		}
+		long merged = PackedInterval.pack(begin, end, day);
+		return insert(root, merged, priority(merged));
+	}
+
+	/**
+	 * @return the version of root with the vacation cut out
+	 */
+	private static Node removeVacation(Node root, long vacation) {
+		long[] pieces = new long[2];
+		for(long overlap : collectOverlaps(root, PackedInterval.begin(vacation), PackedInterval.end(vacation),
+				PackedInterval.VACATION)) {
+			root = remove(root, overlap);
+			// what's left of a meeting can't overlap anything else
+			int n = PackedInterval.split(overlap, vacation, pieces);
+			for(int x = 0; x < n; x++) {
+				root = insert(root, pieces[x], priority(pieces[x]));
+			}
+		}
+		return root;
+	}
+
+	// ************** queries **********************
+
+	/**
+	 * O(1)
+	 */
+	@Override
+	public long countMeetings() {
+		Node current = root;
+		return current == null ? 0 : current.count;
+	}
+
+	/**
+	 * Counts the meetings from one date to another (both included), the same
+	 *   way as MeetingIntervalTree.countMeetings(LocalDate, LocalDate)
+	 *
+	 * O(logN) (expected)
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		return countMeetings(root, from, to, PackedInterval.VACATION);
+	}
+
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return countMeetings(root, from, to, day.getValue());
+	}
+
+	/**
+	 * O(logN) (expected)
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		return findOverlap(new MeetingInterval(date, date, date.getDayOfWeek())) != null;
+	}
+
+	/**
+	 * Finds an interval that overlaps with the given value
+	 *
+	 * O(logN) (expected)
+	 *
+	 * @param value = the value to find what overlaps with it
+	 * @return an interval in the tree that overlaps with value (null if there isn't one)
+	 */
+	public MeetingInterval findOverlap(MeetingInterval value) {
+		int begin = PackedInterval.begin(value.packed), end = PackedInterval.end(value.packed);
+		int day = PackedInterval.day(value.packed);
+		Node current = root;
+		while(current != null) {
+			if(current.overlaps(begin, end, day)) return PackedInterval.unpack(current.packed);
+			current = canOverlap(current.left, begin, day) ? current.left : current.right;
+		}
+		return null;
+	}
+
+	/**
+	 * @return every interval in the tree, sorted by beginDate
+	 */
+	public List<MeetingInterval> toList() {
+		Node current = root;
+		long[] packed = new long[current == null ? 0 : current.size];
+		inorder(current, packed);
+		List<MeetingInterval> intervals = new ArrayList<MeetingInterval>(packed.length);
+		for(long interval : packed) {
+			intervals.add(PackedInterval.unpack(interval));
+		}
+		return intervals;
+	}
+
+	/**
+	 * Finds every interval that overlaps with [begin, end] on day in one pruned
+	 *   traversal (see MeetingIntervalTree.collectOverlaps)
+	 */
+	private static long[] collectOverlaps(Node root, int begin, int end, int day) {
+		long[] found = new long[8];
+		int n = 0;
+		List<Node> stack = new ArrayList<Node>();
+		if(canOverlap(root, begin, day)) stack.add(root);
+		while(!stack.isEmpty()) {
+			Node current = stack.remove(stack.size() - 1);
+			if(current.overlaps(begin, end, day)) {
+				if(n == found.length) found = Arrays.copyOf(found, 2 * n);
+				found[n++] = current.packed;
+			}
+			if(PackedInterval.begin(current.packed) <= end && canOverlap(current.right, begin, day))
+				stack.add(current.right);
+			if(canOverlap(current.left, begin, day))
+				stack.add(current.left);
+		}
+		return Arrays.copyOf(found, n);
+	}
+
+	/**
+	 * @return whether anything in node's subtree on day (any day for VACATION) can end on or after begin
+	 */
+	private static boolean canOverlap(Node node, int begin, int day) {
+		if(node == null) return false;
+		return (day == PackedInterval.VACATION ? node.max : node.dayMax[day - 1]) >= begin;
+	}
+
+	/**
+	 * See MeetingIntervalTree.countMeetings(LocalDate, LocalDate, int)
+	 */
+	private static long countMeetings(Node root, LocalDate from, LocalDate to, int day) {
+		int begin = (int) Math.max(from.toEpochDay(), -PackedInterval.BIAS);
+		int end = (int) Math.min(to.toEpochDay(), PackedInterval.BIAS - 1);
+		if(begin > end) return 0;
+
+		long total = countBeginningBy(root, end, day) - countBeginningBy(root, begin - 1, day);
+		for(long packed : collectOverlaps(root, end, end, day)) {
+			if(PackedInterval.begin(packed) >= begin && PackedInterval.end(packed) > end)
+				total -= PackedInterval.countMeetings(end + 1, PackedInterval.end(packed), PackedInterval.day(packed));
+		}
+		for(long packed : collectOverlaps(root, begin, begin, day)) {
+			if(PackedInterval.begin(packed) < begin)
+				total += PackedInterval.countMeetings(begin, Math.min(PackedInterval.end(packed), end), PackedInterval.day(packed));
+		}
+		return total;
+	}
+
+	/**
+	 * @return the meetings (on day, or every day for VACATION) in every interval beginning on or before epochDay
+	 */
+	private static long countBeginningBy(Node current, int epochDay, int day) {
+		long total = 0;
+		while(current != null) {
+			if(PackedInterval.begin(current.packed) <= epochDay) {
+				if(day == PackedInterval.VACATION || PackedInterval.day(current.packed) == day) total += current.valueCount;
+				if(current.left != null)
+					total += day == PackedInterval.VACATION ? current.left.count : current.left.dayCount[day - 1];
+				current = current.right;
+			}
+			else {
+				current = current.left;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Writes the packed intervals of root's subtree into out in order
+	 *
+	 * @return how many were written
+	 */
+	private static int inorder(Node root, long[] out) {
+		int n = 0;
+		List<Node> stack = new ArrayList<Node>();
+		Node current = root;
+		while(current != null || !stack.isEmpty()) {
+			while(current != null) {
+				stack.add(current);
+				current = current.left;
+			}
+			current = stack.remove(stack.size() - 1);
+			out[n++] = current.packed;
+			current = current.right;
+		}
+		return n;
+	}
+
+	// ************** treap **********************
+
+	/**
+	 * Spreads the bits of the packed interval out (splitmix64's finalizer), so
+	 *   the same interval always gets the same priority in every version
+	 */
+	static int priority(long packed) {
+		long z = packed;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return (int) ((z ^ (z >>> 31)) >>> 32);
+	}
+
+	/**
+	 * @return the version of node with packed inserted (packed can't already be in it)
+	 */
+	private static Node insert(Node node, long packed, int priority) {
+		if(node == null) return new Node(packed, priority, null, null);
+		if(priority > node.priority) {
+			Node[] parts = split(node, packed);
+			return new Node(packed, priority, parts[0], parts[1]);
+		}
+		if(packed < node.packed) return node.with(insert(node.left, packed, priority), node.right);
+		return node.with(node.left, insert(node.right, packed, priority));
+	}
+
+	/**
+	 * @return the version of node without packed
+	 */
+	private static Node remove(Node node, long packed) {
+		if(node == null) return null;
+		if(packed == node.packed) return merge(node.left, node.right);
+		if(packed < node.packed) return node.with(remove(node.left, packed), node.right);
+		return node.with(node.left, remove(node.right, packed));
+	}
+
+	/**
+	 * @return {the nodes before packed, the nodes after it}
+	 */
+	private static Node[] split(Node node, long packed) {
+		if(node == null) return new Node[2];
+		if(node.packed < packed) {
+			Node[] parts = split(node.right, packed);
+			parts[0] = node.with(node.left, parts[0]);
+			return parts;
+		}
+		Node[] parts = split(node.left, packed);
+		parts[1] = node.with(parts[1], node.right);
+		return parts;
+	}
+
+	/**
+	 * @return a treap of everything in a and then everything in b (a has to be all before b)
+	 */
+	private static Node merge(Node a, Node b) {
+		if(a == null) return b;
+		if(b == null) return a;
+		if(a.priority > b.priority) return a.with(a.left, merge(a.right, b));
+		return b.with(merge(a, b.left), b.right);
+	}
+
+	/**
+	 * Builds a treap out of sorted[0..n-1] in O(N)
+	 *
+	 * The shape comes from the priorities with the usual stack algorithm for a
+	 *   Cartesian tree, then the nodes are made children first (since they can't be changed later).
+	 */
+	private static Node build(long[] sorted, int n) {
+		if(n == 0) return null;
+		int[] priorities = new int[n], left = new int[n], right = new int[n];
+		Arrays.fill(left, -1);
+		Arrays.fill(right, -1);
+		int[] stack = new int[n];
+		int top = 0;
+		for(int x = 0; x < n; x++) {
+			priorities[x] = priority(sorted[x]);
+			int last = -1;
+			while(top > 0 && priorities[stack[top - 1]] < priorities[x]) last = stack[--top];
+			left[x] = last;
+			if(top > 0) right[stack[top - 1]] = x;
+			stack[top++] = x;
+		}
+
+		// reverse of a (root, right, left) preorder is a postorder
+		int[] order = new int[n];
+		int count = 0;
+		top = 0;
+		stack[top++] = stack[0];
+		while(top > 0) {
+			int x = stack[--top];
+			order[count++] = x;
+			if(left[x] >= 0) stack[top++] = left[x];
+			if(right[x] >= 0) stack[top++] = right[x];
+		}
+		Node[] nodes = new Node[n];
+		for(int y = n - 1; y >= 0; y--) {
+			int x = order[y];
+			nodes[x] = new Node(sorted[x], priorities[x], left[x] < 0 ? null : nodes[left[x]],
+					right[x] < 0 ? null : nodes[right[x]]);
+		}
+		return nodes[order[0]];
+	}
+
+	/**
+	 * A node that never changes once it's made (its augmentations are calculated from its children then)
+	 */
+	private static final class Node {
+		final long packed;
+		final int priority;
+		final Node left, right;
+		final int size; // the number of nodes in this subtree
+		final int valueCount; // the number of meetings in packed
+		final long count; // the number of meetings in this subtree
+		final long[] dayCount = new long[7];
+		final int max;
+		final int[] dayMax = new int[7];
+
+		Node(long packed, int priority, Node left, Node right) {
+			this.packed = packed;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			valueCount = PackedInterval.countMeetings(packed);
+
+			int end = PackedInterval.end(packed);
+			int own = PackedInterval.day(packed) - 1;
+			int newMax = end;
+			int newSize = 1;
+			long newCount = valueCount;
+			if(left != null) {
+				newMax = Math.max(newMax, left.max);
+				newSize += left.size;
+				newCount += left.count;
+			}
+			if(right != null) {
+				newMax = Math.max(newMax, right.max);
+				newSize += right.size;
+				newCount += right.count;
+			}
+			for(int d = 0; d < 7; d++) {
+				int newDayMax = d == own ? end : NO_DAY;
+				long newDayCount = d == own ? valueCount : 0;
+				if(left != null) {
+					newDayMax = Math.max(newDayMax, left.dayMax[d]);
+					newDayCount += left.dayCount[d];
+				}
+				if(right != null) {
+					newDayMax = Math.max(newDayMax, right.dayMax[d]);
+					newDayCount += right.dayCount[d];
+				}
+				dayMax[d] = newDayMax;
+				dayCount[d] = newDayCount;
+			}
+			max = newMax;
+			size = newSize;
+			count = newCount;
+		}
+
+		/**
+		 * @return a copy of this node with different children
+		 */
+		Node with(Node newLeft, Node newRight) {
+			if(newLeft == left && newRight == right) return this;
+			return new Node(packed, priority, newLeft, newRight);
+		}
+
+		boolean overlaps(int begin, int end, int day) {
+			return (day == PackedInterval.VACATION || PackedInterval.day(packed) == day)
+					&& PackedInterval.begin(packed) <= end && begin <= PackedInterval.end(packed);
+		}
+	}
+}
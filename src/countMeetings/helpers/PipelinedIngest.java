@@ -0,0 +1,411 @@
+package countMeetings.helpers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a csv file into a MeetingIndex in three stages that run at the same time
+ *   (1) a reader thread reads the file into batches of whole rows
+ *   (2) a pool of parser threads turns each batch into MeetingIntervals
+ *   (3) the calling thread inserts every parsed batch into the index
+ *
+ * CountMeetingsFull.countMeetings reads the whole file before inserting anything,
+ *   so the disk and the CPU take turns. Here the next batch is being read while
+ *   the last one is parsed and the one before that is inserted.
+ *
+ * The stages are connected by bounded queues, so a stage that gets ahead just
+ *   waits (eg. a fast disk can't fill memory with batches the parsers haven't
+ *   gotten to yet). Every stage keeps StageMetrics on how long it spent working
+ *   and waiting, so you can see which one holds the others up: the slowest stage
+ *   is the one the others spend their time waiting on.
+ *
+ * Batches are parsed in whatever order the parsers finish them. That doesn't
+ *   change the result since merging meetings doesn't depend on order and the
+ *   vacations are only removed at the end (like CountMeetingsFull).
+ *
+ * The reader counts the newlines in every batch it cuts, so each batch knows the
+ *   number of its first row and errors have the row's number in the file. The
+ *   first malformed row stops the ingest.
+ *
+ * @author Alex Lay
+ */
+public class PipelinedIngest {
+	static final int DEFAULT_BATCH_BYTES = 1 << 20;
+	// how many batches can wait between two stages for each parser
+	static final int BATCHES_PER_PARSER = 2;
+
+	// tells the next stage there are no more batches
+	private static final RawBatch END_OF_FILE = new RawBatch(new byte[0], 0, 0, 0);
+	private static final ParsedBatch NO_MORE_ROWS = new ParsedBatch(null, null, null);
+
+	private final String csvPath;
+	private final int parsers;
+	private final int batchBytes;
+	private final StageMetrics readerMetrics = new StageMetrics("read");
+	private final StageMetrics parserMetrics = new StageMetrics("parse");
+	private final StageMetrics builderMetrics = new StageMetrics("build");
+
+	/**
+	 * One parser per core (less one for the reader), at least one
+	 */
+	public PipelinedIngest(String csvPath) {
+		this(csvPath, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), DEFAULT_BATCH_BYTES);
+	}
+
+	/**
+	 * @param csvPath = the path to the csv file (can be gzipped)
+	 * @param parsers = the number of parser threads
+	 * @param batchBytes = about how many bytes of the file go in each batch
+	 */
+	public PipelinedIngest(String csvPath, int parsers, int batchBytes) {
+		if(parsers < 1) {
+			throw new IllegalArgumentException("parsers must be at least 1");
+		}
+		if(batchBytes < 1) {
+			throw new IllegalArgumentException("batchBytes must be at least 1");
+		}
+		this.csvPath = csvPath;
+		this.parsers = parsers;
+		this.batchBytes = batchBytes;
+	}
+
+	/**
+	 * Inserts every meeting in the file into index
+	 * The vacations are returned instead of removed so the caller can remove them
+	 *   once everything has been inserted (eg. with CountMeetingsFull.removeVacations)
+	 *
+	 * @param index = the index to insert the meetings into (only used from this thread)
+	 * @return the vacations in the file
+	 * @throws IOException if the file can't be read or a row is malformed
+	 */
+	public List<MeetingInterval> ingestFull(MeetingIndex index) throws IOException {
+		int capacity = parsers * BATCHES_PER_PARSER;
+		BlockingQueue<RawBatch> raw = new ArrayBlockingQueue<RawBatch>(capacity);
+		BlockingQueue<ParsedBatch> parsed = new ArrayBlockingQueue<ParsedBatch>(capacity);
+		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parsers + 1);
+		try {
+			List<Future<Void>> stages = new ArrayList<Future<Void>>();
+			stages.add(executor.submit(() -> read(raw)));
+			for(int p = 0; p < parsers; p++) {
+				stages.add(executor.submit(() -> parse(raw, parsed)));
+			}
+
+			int finishedParsers = 0;
+			while(finishedParsers < parsers) {
+				ParsedBatch batch = take(parsed, builderMetrics);
+				if(batch == NO_MORE_ROWS) {
+					finishedParsers++;
+					continue;
+				}
+				if(batch.error != null) throw batch.error;
+				long start = System.nanoTime();
+				index.insertList(batch.meetings);
+				vacations.addAll(batch.vacations);
+				builderMetrics.finishBatch(System.nanoTime() - start, 0, batch.meetings.size() + batch.vacations.size());
+			}
+			// parsers first: if one of them died without taking its END_OF_FILE the reader can still be
+			//   blocked on raw, and get() throwing is what gets it interrupted (in the finally)
+			for(int s = stages.size() - 1; s >= 0; s--) {
+				stages.get(s).get();
+			}
+			return vacations;
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + csvPath, e);
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IOException("Problem reading " + csvPath, e.getCause());
+		}
+		finally {
+			// stops any stage still waiting on a queue if this ended early
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Stage 1: reads the file into batches that end on a newline and queues them
+	 *   (followed by one END_OF_FILE for every parser)
+	 */
+	private Void read(BlockingQueue<RawBatch> raw) throws IOException, InterruptedException {
+		try(InputStream in = open()) {
+			byte[] carry = new byte[0];
+			int carried = 0;
+			boolean isFirst = true;
+			long rows = 0; // rows in the batches before this one
+			while(true) {
+				long start = System.nanoTime();
+				byte[] bytes = Arrays.copyOf(carry, Math.max(batchBytes, carried * 2));
+				int filled = carried, read = 0;
+				while(filled < bytes.length && (read = in.read(bytes, filled, bytes.length - filled)) >= 0) {
+					filled += read;
+				}
+				boolean isLast = read < 0;
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				int from = isFirst ? CSVScanner.skipBOM(buffer, 0, filled) : 0;
+				int end = isLast ? filled : lastNewline(bytes, from, filled) + 1;
+				if(end == 0 && !isLast) {
+					// one row is bigger than the batch, so read more of it
+					carry = bytes;
+					carried = filled;
+					continue;
+				}
+				carried = filled - end;
+				carry = Arrays.copyOfRange(bytes, end, end + carried);
+				isFirst = false;
+				readerMetrics.finishBatch(System.nanoTime() - start, end - from, 0);
+				if(end > from) {
+					RawBatch batch = new RawBatch(bytes, from, end, rows);
+					rows += countNewlines(bytes, from, end);
+					put(raw, batch, readerMetrics);
+				}
+				if(isLast) break;
+			}
+		}
+		finally {
+			for(int p = 0; p < parsers; p++) {
+				put(raw, END_OF_FILE, readerMetrics);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stage 2: parses raw batches until the end of the file. A malformed row (or
+	 *   anything else that goes wrong parsing a batch) is passed on to the builder,
+	 *   which stops the ingest.
+	 */
+	private Void parse(BlockingQueue<RawBatch> raw, BlockingQueue<ParsedBatch> parsed) throws InterruptedException {
+		try {
+			while(true) {
+				RawBatch batch = take(raw, parserMetrics);
+				if(batch == END_OF_FILE) break;
+				long start = System.nanoTime();
+				List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+				List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+				try {
+					new CSVScanner(batch.rowsBefore).scan(ByteBuffer.wrap(batch.bytes), batch.from, batch.to, interval -> {
+						if(interval.dayOfTheWeek != null) meetings.add(interval);
+						else vacations.add(interval);
+					});
+				}
+				catch(IOException e) {
+					put(parsed, new ParsedBatch(null, null, e), parserMetrics);
+					break;
+				}
+				catch(RuntimeException e) {
+					// otherwise this parser would just stop, and with none left the reader waits on raw forever
+					put(parsed, new ParsedBatch(null, null, new IOException("Problem parsing " + csvPath, e)), parserMetrics);
+					break;
+				}
+				parserMetrics.finishBatch(System.nanoTime() - start, batch.to - batch.from, meetings.size() + vacations.size());
+				put(parsed, new ParsedBatch(meetings, vacations, null), parserMetrics);
+			}
+		}
+		finally {
+			put(parsed, NO_MORE_ROWS, parserMetrics);
+		}
+		return null;
+	}
+
+	private InputStream open() throws IOException {
+		if(CSVScanner.isCompressed(csvPath)) {
+			return new GZIPInputStream(new FileInputStream(csvPath), CSVScanner.GZIP_BUFFER);
+		}
+		return new FileInputStream(csvPath);
+	}
+
+	private static int countNewlines(byte[] bytes, int from, int to) {
+		int newlines = 0;
+		for(int x = from; x < to; x++) {
+			if(bytes[x] == '\n') newlines++;
+		}
+		return newlines;
+	}
+
+	private static int lastNewline(byte[] bytes, int from, int to) {
+		for(int x = to - 1; x >= from; x--) {
+			if(bytes[x] == '\n') return x;
+		}
+		return -1;
+	}
+
+	/**
+	 * queue.put, counting the time spent waiting for room as blocked
+	 */
+	private static <T> void put(BlockingQueue<T> queue, T item, StageMetrics metrics) throws InterruptedException {
+		long start = System.nanoTime();
+		queue.put(item);
+		metrics.blockedNanos.add(System.nanoTime() - start);
+	}
+
+	/**
+	 * queue.take, counting the time spent waiting for something to do as starved
+	 */
+	private static <T> T take(BlockingQueue<T> queue, StageMetrics metrics) throws InterruptedException {
+		long start = System.nanoTime();
+		T item = queue.take();
+		metrics.starvedNanos.add(System.nanoTime() - start);
+		return item;
+	}
+
+	public StageMetrics getReaderMetrics() {
+		return readerMetrics;
+	}
+
+	public StageMetrics getParserMetrics() {
+		return parserMetrics;
+	}
+
+	public StageMetrics getBuilderMetrics() {
+		return builderMetrics;
+	}
+
+	/**
+	 * @return one line of metrics for every stage
+	 */
+	public String getMetricsReport() {
+		return readerMetrics + "\n" + parserMetrics + "\n" + builderMetrics;
+	}
+
+	/**
+	 * What one stage of the pipeline did (added up over all of its threads)
+	 *
+	 * A stage with a lot of starved time is waiting on the stage before it and
+	 *   one with a lot of blocked time is waiting on the stage after it.
+	 */
+	public static class StageMetrics {
+		private final String name;
+		private final LongAdder batches = new LongAdder();
+		private final LongAdder bytes = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder busyNanos = new LongAdder();
+		private final LongAdder starvedNanos = new LongAdder();
+		private final LongAdder blockedNanos = new LongAdder();
+
+		StageMetrics(String name) {
+			this.name = name;
+		}
+
+		void finishBatch(long nanos, long batchBytes, long batchRows) {
+			batches.increment();
+			bytes.add(batchBytes);
+			rows.add(batchRows);
+			busyNanos.add(nanos);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getBatches() {
+			return batches.sum();
+		}
+
+		/**
+		 * @return the bytes of the file this stage has handled (0 for the builder)
+		 */
+		public long getBytes() {
+			return bytes.sum();
+		}
+
+		/**
+		 * @return the rows this stage has handled (0 for the reader, which doesn't look at rows)
+		 */
+		public long getRows() {
+			return rows.sum();
+		}
+
+		/**
+		 * @return the time spent working
+		 */
+		public long getBusyNanos() {
+			return busyNanos.sum();
+		}
+
+		/**
+		 * @return the time spent waiting for the stage before this one
+		 */
+		public long getStarvedNanos() {
+			return starvedNanos.sum();
+		}
+
+		/**
+		 * @return the time spent waiting for the stage after this one to make room
+		 */
+		public long getBlockedNanos() {
+			return blockedNanos.sum();
+		}
+
+		/**
+		 * @return how many megabytes per second this stage gets through while it's working
+		 */
+		public double getMegabytesPerSecond() {
+			long busy = getBusyNanos();
+			return busy == 0 ? 0 : getBytes() / 1e6 / (busy / 1e9);
+		}
+
+		/**
+		 * @return how many rows per second this stage gets through while it's working
+		 */
+		public double getRowsPerSecond() {
+			long busy = getBusyNanos();
+			return busy == 0 ? 0 : getRows() / (busy / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-5s %6d batches  %8.1f MB/s  %12.0f rows/s  busy %7.1f ms  starved %7.1f ms  blocked %7.1f ms",
+					name, getBatches(), getMegabytesPerSecond(), getRowsPerSecond(), getBusyNanos() / 1e6,
+					getStarvedNanos() / 1e6, getBlockedNanos() / 1e6);
+		}
+	}
+
+	/**
+	 * Whole rows of the file, from (inclusive) to to (exclusive)
+	 *   rowsBefore = the number of rows in the file before the first one
+	 */
+	private static class RawBatch {
+		final byte[] bytes;
+		final int from, to;
+		final long rowsBefore;
+
+		RawBatch(byte[] bytes, int from, int to, long rowsBefore) {
+			this.bytes = bytes;
+			this.from = from;
+			this.to = to;
+			this.rowsBefore = rowsBefore;
+		}
+	}
+
+	/**
+	 * The rows of one RawBatch, or the error that stopped it from being parsed
+	 */
+	private static class ParsedBatch {
+		final List<MeetingInterval> meetings;
+		final List<MeetingInterval> vacations;
+		final IOException error;
+
+		ParsedBatch(List<MeetingInterval> meetings, List<MeetingInterval> vacations, IOException error) {
+			this.meetings = meetings;
+			this.vacations = vacations;
+			this.error = error;
+		}
+	}
+}
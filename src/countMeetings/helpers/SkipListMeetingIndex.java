@@ -0,0 +1,296 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MeetingIndex that many threads can insert into at once
+ *
+ * The meetings are kept in one ConcurrentSkipListMap of disjoint intervals keyed
+ *   by (day of the week, beginDate) -> endDate, so each day's intervals sit next
+ *   to each other in beginDate order (like the partitions of WeekdayPartitionedIndex).
+ *
+ * Inserting never locks the map. A thread merging a meeting...
+ *   (1) claims every interval it overlaps by removing it with remove(key, end)
+ *       (only one thread can win each one, so no days are lost or counted twice)
+ *   (2) puts the merged interval in with putIfAbsent
+ *   (3) looks again, and if another thread put in something overlapping in the
+ *       meantime, takes its own interval back out and goes around again
+ *   Whichever of two overlapping intervals went in last always sees the other
+ *   one in step (3), so once the inserts are done no two intervals overlap.
+ *
+ * Looking for overlaps only starts at the last interval beginning before begin
+ *   (lowerKey), since once the intervals are disjoint that's the only one that
+ *   can reach it. While inserts are running there can be a shorter interval R
+ *   between ours and an overlapping Q that begins before it, so ours can miss Q.
+ *   That still leaves no overlaps at the end. Take an overlapping pair left at
+ *   the end, Q beginning before P, with P's begin - Q's begin as small as it can
+ *   be. P went in after Q (or Q's check would have found P between its begin and
+ *   end), so P's check found some R between them instead of Q. If R is left at
+ *   the end it overlaps Q and is a closer pair (or Q's check claimed it). If it
+ *   isn't, the interval that ends up with R's days went in after P's check and
+ *   overlaps Q, so it's either a closer pair or it found and claimed Q. Either
+ *   way the pair can't be left (testConcurrentInserts has long meetings over
+ *   short ones so this case comes up a lot).
+ *
+ * Vacations have to see every interval, including ones a thread is halfway
+ *   through merging, so they wait for the inserts that are running and keep new
+ *   ones out until they're done. They're normally applied once, after all of the
+ *   inserts. Each insert marks itself in its thread's stripe of a counter array,
+ *   so inserts on different threads don't fight over one word, and a vacation
+ *   sets carving and waits for every stripe to go back to zero.
+ *
+ * Reads never wait. While writes are running, a read can miss a meeting that is
+ *   being merged or see it twice; once they're done every answer is exact.
+ *
+ * @author Alex Lay
+ */
+public class SkipListMeetingIndex implements MeetingIndex {
+	private static final int DAY_SHIFT = 32;
+	private static final int STRIPES = 4 * Integer.highestOneBit(Runtime.getRuntime().availableProcessors());
+	// ints between stripes, so each stripe has its own cache line
+	private static final int PADDING = 16;
+
+	private final ConcurrentSkipListMap<Long, Integer> intervals = new ConcurrentSkipListMap<Long, Integer>();
+	private final LongAdder count = new LongAdder();
+	// the number of inserts running on the threads in each stripe (a thread always
+	//   uses the same stripe, so a stripe never goes below zero)
+	private final AtomicIntegerArray inserting = new AtomicIntegerArray(STRIPES * PADDING);
+	private volatile boolean carving = false;
+	private final Object carveLock = new Object();
+
+	// ************** writes **********************
+
+	/**
+	 * O(logN) expected, plus a retry for every other thread that merged an
+	 *   overlapping meeting at the same time
+	 */
+	@Override
+	public void insert(MeetingInterval m) {
+		int day = PackedInterval.day(m.packed);
+		if(day == PackedInterval.VACATION) {
+			throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+		}
+		int stripe = PADDING * (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 40) & (STRIPES - 1));
+		while(true) {
+			inserting.incrementAndGet(stripe);
+			if(!carving) break;
+			// a vacation is waiting for us to finish, so get out of its way until it's done
+			inserting.decrementAndGet(stripe);
+			while(carving) Thread.yield();
+		}
+		try {
+			insert(day, PackedInterval.begin(m.packed), PackedInterval.end(m.packed));
+		}
+		finally {
+			inserting.decrementAndGet(stripe);
+		}
+	}
+
+	/**
+	 * Cuts the vacation out of every day of the week
+	 *
+	 * O(7 * (logN + M)) where M is the number of meetings it overlaps
+	 */
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		removeVacations(Collections.singletonList(vacation));
+	}
+
+	/**
+	 * Removes every vacation while holding off inserts only once
+	 */
+	@Override
+	public void removeVacations(List<MeetingInterval> vacations) {
+		synchronized(carveLock) {
+			carving = true;
+			try {
+				// once a stripe is zero after carving is set, any insert starting on it sees carving and backs off
+				for(int stripe = 0; stripe < STRIPES; stripe++) {
+					while(inserting.get(PADDING * stripe) != 0) Thread.yield();
+				}
+				for(MeetingInterval vacation : vacations) {
+					carve(PackedInterval.begin(vacation.packed), PackedInterval.end(vacation.packed));
+				}
+			}
+			finally {
+				carving = false;
+			}
+		}
+	}
+
+	/**
+	 * The claim, put and check loop described above
+	 *
+	 * @param begin, end = the days this thread owns and has to get into the map
+	 */
+	private void insert(int day, int begin, int end) {
+		long ourKey = 0;
+		int ourEnd = 0;
+		boolean inMap = false;
+		while(true) {
+			boolean merged = false;
+			for(Map.Entry<Long, Integer> overlap : overlaps(day, begin, end).entrySet()) {
+				long key = overlap.getKey();
+				int overlapEnd = overlap.getValue();
+				if(overlapEnd < begin || (inMap && key == ourKey)) continue;
+				if(intervals.remove(key, overlapEnd)) {
+					int overlapBegin = begin(key);
+					count.add(-PackedInterval.countMeetings(overlapBegin, overlapEnd, day));
+					begin = Math.min(begin, overlapBegin);
+					end = Math.max(end, overlapEnd);
+					merged = true;
+				}
+				// else another thread claimed it first and will merge it
+			}
+			if(inMap) {
+				if(!merged) return;
+				// ours is too small now; if another thread already took it that's fine, we still have its days
+				if(intervals.remove(ourKey, ourEnd)) count.add(-PackedInterval.countMeetings(begin(ourKey), ourEnd, day));
+				inMap = false;
+			}
+
+			ourKey = key(day, begin);
+			ourEnd = end;
+			if(intervals.putIfAbsent(ourKey, ourEnd) == null) {
+				count.add(PackedInterval.countMeetings(begin, end, day));
+				inMap = true;
+			}
+			// if something was already at ourKey it overlaps, so the next pass claims it
+		}
+	}
+
+	/**
+	 * Cuts [begin, end] out of every interval it overlaps (only called while no inserts are running)
+	 */
+	private void carve(int begin, int end) {
+		for(int day = 1; day <= 7; day++) {
+			List<Map.Entry<Long, Integer>> overlapping = new ArrayList<Map.Entry<Long, Integer>>();
+			for(Map.Entry<Long, Integer> overlap : overlaps(day, begin, end).entrySet()) {
+				if(overlap.getValue() >= begin) overlapping.add(overlap);
+			}
+			for(Map.Entry<Long, Integer> overlap : overlapping) {
+				int meetingBegin = begin(overlap.getKey()), meetingEnd = overlap.getValue();
+				intervals.remove(overlap.getKey());
+				count.add(-PackedInterval.countMeetings(meetingBegin, meetingEnd, day));
+				if(meetingBegin < begin) put(day, meetingBegin, begin - 1);
+				if(meetingEnd > end) put(day, end + 1, meetingEnd);
+			}
+		}
+	}
+
+	private void put(int day, int begin, int end) {
+		intervals.put(key(day, begin), end);
+		count.add(PackedInterval.countMeetings(begin, end, day));
+	}
+
+	// ************** reads **********************
+
+	/**
+	 * O(1)
+	 */
+	@Override
+	public long countMeetings() {
+		return count.sum();
+	}
+
+	/**
+	 * O(7 * (logN + K)) where K is the number of intervals that overlap from to to
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		long total = 0;
+		for(int day = 1; day <= 7; day++) {
+			total += countMeetings(from, to, day);
+		}
+		return total;
+	}
+
+	/**
+	 * O(logN + K) on just that day's intervals
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return countMeetings(from, to, day.getValue());
+	}
+
+	private long countMeetings(LocalDate from, LocalDate to, int day) {
+		int low = (int) Math.max(from.toEpochDay(), -PackedInterval.BIAS);
+		int high = (int) Math.min(to.toEpochDay(), PackedInterval.BIAS - 1);
+		if(low > high) return 0;
+		long total = 0;
+		for(Map.Entry<Long, Integer> interval : overlaps(day, low, high).entrySet()) {
+			int end = interval.getValue();
+			if(end < low) continue;
+			total += PackedInterval.countMeetings(Math.max(begin(interval.getKey()), low), Math.min(end, high), day);
+		}
+		return total;
+	}
+
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		int day = date.getDayOfWeek().getValue();
+		long epochDay = date.toEpochDay();
+		if(epochDay < -PackedInterval.BIAS || epochDay >= PackedInterval.BIAS) return false;
+		Map.Entry<Long, Integer> interval = intervals.floorEntry(key(day, epochDay));
+		return interval != null && interval.getKey() >>> DAY_SHIFT == day && interval.getValue() >= epochDay;
+	}
+
+	/**
+	 * @return every meeting, sorted by day of the week and then by beginDate
+	 */
+	public List<MeetingInterval> toList() {
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		for(Map.Entry<Long, Integer> interval : intervals.entrySet()) {
+			int day = (int) (interval.getKey() >>> DAY_SHIFT);
+			meetings.add(PackedInterval.unpack(PackedInterval.pack(begin(interval.getKey()), interval.getValue(), day)));
+		}
+		return meetings;
+	}
+
+	/**
+	 * @return the number of intervals in the index
+	 */
+	public int size() {
+		return intervals.size();
+	}
+
+	// ************** keys **********************
+
+	/**
+	 * Every interval on day that could overlap [begin, end]: the last one beginning
+	 *   before begin and the ones beginning from begin to end (the first may end
+	 *   before begin, so callers still check)
+	 *
+	 * O(logN) to find where to start
+	 */
+	private ConcurrentNavigableMap<Long, Integer> overlaps(int day, long begin, long end) {
+		long from = key(day, begin);
+		Long before = intervals.lowerKey(from);
+		if(before != null && before >>> DAY_SHIFT == day) from = before;
+		return intervals.subMap(from, true, key(day, end), true);
+	}
+
+	/**
+	 * The day of the week goes above the (biased) beginDate so each day's intervals are together
+	 */
+	private static long key(int day, long epochDay) {
+		long biased = Math.max(0, Math.min(epochDay + PackedInterval.BIAS, 2L * PackedInterval.BIAS));
+		return (long) day << DAY_SHIFT | biased;
+	}
+
+	private static int begin(long key) {
+		return (int) (key & 0xFFFFFFFFL) - PackedInterval.BIAS;
+	}
+}
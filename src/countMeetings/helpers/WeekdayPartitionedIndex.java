@@ -0,0 +1,273 @@
+package countMeetings.helpers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps a separate set of meetings for each day of the week
+ *
+ * Meetings only ever merge with meetings on the same day of the week, so instead
+ *   of one interval tree for all seven days (MeetingIntervalTree and its dayMax
+ *   augmentation), each day gets its own TreeMap of disjoint intervals
+ *   (beginDate -> endDate, as epoch days). Inserting, removing a vacation and
+ *   checking a date are all O(logN) in just that day's partition.
+ *
+ * Each partition also keeps a running count of its meetings, so countMeetings is
+ *   just adding up seven numbers.
+ *
+ * The partitions never touch each other, so insertList and removeVacations can
+ *   work on all seven at once if a ForkJoinPool is given.
+ *
+ * @author Alex Lay
+ */
+public class WeekdayPartitionedIndex implements MeetingIndex {
+	// lists smaller than this aren't worth splitting across threads
+	static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	private final Partition[] partitions = new Partition[7];
+	private final ForkJoinPool pool;
+
+	/**
+	 * A single-threaded index
+	 */
+	public WeekdayPartitionedIndex() {
+		this(null);
+	}
+
+	/**
+	 * @param pool = the pool to update the partitions on (null for single-threaded)
+	 */
+	public WeekdayPartitionedIndex(ForkJoinPool pool) {
+		for(int d = 0; d < 7; d++) {
+			partitions[d] = new Partition(d + 1);
+		}
+		this.pool = pool;
+	}
+
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public void insert(MeetingInterval m) {
+		int day = PackedInterval.day(m.packed);
+		if(day == PackedInterval.VACATION) {
+			throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+		}
+		partitions[day - 1].insert(PackedInterval.begin(m.packed), PackedInterval.end(m.packed));
+	}
+
+	/**
+	 * Sorts the meetings by day of the week and then inserts each day's meetings
+	 *   into its partition (in parallel if there is a pool)
+	 */
+	@Override
+	public void insertList(List<MeetingInterval> meetings) {
+		if(pool == null || meetings.size() < PARALLEL_THRESHOLD) {
+			MeetingIndex.super.insertList(meetings);
+			return;
+		}
+		List<List<MeetingInterval>> byDay = new ArrayList<List<MeetingInterval>>();
+		for(int d = 0; d < 7; d++) {
+			byDay.add(new ArrayList<MeetingInterval>());
+		}
+		for(MeetingInterval m : meetings) {
+			int day = PackedInterval.day(m.packed);
+			if(day == PackedInterval.VACATION) {
+				throw new IllegalArgumentException("Can't insert a vacation as a meeting");
+			}
+			byDay.get(day - 1).add(m);
+		}
+		forEachPartition(partition -> {
+			for(MeetingInterval m : byDay.get(partition.isoDay - 1)) {
+				partition.insert(PackedInterval.begin(m.packed), PackedInterval.end(m.packed));
+			}
+		});
+	}
+
+	/**
+	 * A vacation applies to every day of the week, so it's removed from every partition
+	 *
+	 * O(7 * (logN + M)) where M is the number of meetings it overlaps
+	 */
+	@Override
+	public void removeVacation(MeetingInterval vacation) {
+		int begin = PackedInterval.begin(vacation.packed);
+		int end = PackedInterval.end(vacation.packed);
+		for(Partition partition : partitions) {
+			partition.removeVacation(begin, end);
+		}
+	}
+
+	/**
+	 * Removes every vacation from each partition (in parallel if there is a pool)
+	 */
+	@Override
+	public void removeVacations(List<MeetingInterval> vacations) {
+		if(pool == null) {
+			MeetingIndex.super.removeVacations(vacations);
+			return;
+		}
+		forEachPartition(partition -> {
+			for(MeetingInterval vacation : vacations) {
+				partition.removeVacation(PackedInterval.begin(vacation.packed), PackedInterval.end(vacation.packed));
+			}
+		});
+	}
+
+	/**
+	 * O(1) (each partition keeps its own count)
+	 */
+	@Override
+	public long countMeetings() {
+		long total = 0;
+		for(Partition partition : partitions) {
+			total += partition.count;
+		}
+		return total;
+	}
+
+	/**
+	 * O(logN + K) where K is the number of intervals between from and to
+	 *   (the partitions don't keep counts for ranges, unlike MeetingIntervalTree)
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to) {
+		long total = 0;
+		for(Partition partition : partitions) {
+			total += partition.countMeetings(from.toEpochDay(), to.toEpochDay());
+		}
+		return total;
+	}
+	
+	/**
+	 * O(logN + K) in just day's partition
+	 */
+	@Override
+	public long countMeetings(LocalDate from, LocalDate to, DayOfWeek day) {
+		return partitions[day.getValue() - 1].countMeetings(from.toEpochDay(), to.toEpochDay());
+	}
+	
+	/**
+	 * O(logN)
+	 */
+	@Override
+	public boolean haveMeeting(LocalDate date) {
+		return partitions[date.getDayOfWeek().getValue() - 1].contains((int) date.toEpochDay());
+	}
+
+	/**
+	 * @return every meeting, sorted by day of the week and then by beginDate
+	 */
+	public List<MeetingInterval> toList() {
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		for(Partition partition : partitions) {
+			for(Map.Entry<Integer, Integer> interval : partition.intervals.entrySet()) {
+				meetings.add(PackedInterval.unpack(PackedInterval.pack(interval.getKey(), interval.getValue(), partition.isoDay)));
+			}
+		}
+		return meetings;
+	}
+
+	interface PartitionTask {
+		void run(Partition partition);
+	}
+
+	/**
+	 * Runs task on all seven partitions, on the pool if there is one
+	 */
+	private void forEachPartition(PartitionTask task) {
+		if(pool == null) {
+			for(Partition partition : partitions) task.run(partition);
+			return;
+		}
+		// a parallel stream started from inside a pool runs on that pool
+		pool.submit(() -> Arrays.stream(partitions).parallel().forEach(task::run)).join();
+	}
+
+	/**
+	 * The meetings on one day of the week, as disjoint intervals
+	 */
+	private static class Partition {
+		final int isoDay;
+		final TreeMap<Integer, Integer> intervals = new TreeMap<Integer, Integer>();
+		long count = 0;
+
+		Partition(int isoDay) {
+			this.isoDay = isoDay;
+		}
+
+		/**
+		 * Merges [begin, end] with every interval it overlaps and puts the result back
+		 */
+		void insert(int begin, int end) {
+			Map.Entry<Integer, Integer> before = intervals.floorEntry(begin);
+			if(before != null && before.getValue() >= begin) {
+				begin = before.getKey();
+				end = Math.max(end, before.getValue());
+				remove(before.getKey(), before.getValue());
+			}
+			Map.Entry<Integer, Integer> overlap = intervals.ceilingEntry(begin);
+			while(overlap != null && overlap.getKey() <= end) {
+				end = Math.max(end, overlap.getValue());
+				remove(overlap.getKey(), overlap.getValue());
+				overlap = intervals.ceilingEntry(begin);
+			}
+			add(begin, end);
+		}
+
+		/**
+		 * Cuts [begin, end] out of every interval it overlaps
+		 */
+		void removeVacation(int begin, int end) {
+			Map.Entry<Integer, Integer> overlap = intervals.floorEntry(begin);
+			if(overlap == null || overlap.getValue() < begin) {
+				overlap = intervals.ceilingEntry(begin);
+			}
+			while(overlap != null && overlap.getKey() <= end) {
+				int meetingBegin = overlap.getKey(), meetingEnd = overlap.getValue();
+				remove(meetingBegin, meetingEnd);
+				if(meetingBegin < begin) add(meetingBegin, begin - 1);
+				if(meetingEnd > end) add(end + 1, meetingEnd);
+				overlap = intervals.ceilingEntry(meetingBegin + 1);
+			}
+		}
+
+		/**
+		 * Clips every interval that overlaps [begin, end] and counts what's left
+		 */
+		long countMeetings(long begin, long end) {
+			if(begin > end) return 0;
+			// dates past what an int holds can't have meetings
+			int low = (int) Math.max(begin, Integer.MIN_VALUE), high = (int) Math.min(end, Integer.MAX_VALUE);
+			Integer start = intervals.floorKey(low);
+			if(start == null || intervals.get(start) < low) start = low;
+			long total = 0;
+			for(Map.Entry<Integer, Integer> interval : intervals.subMap(start, true, high, true).entrySet()) {
+				total += PackedInterval.countMeetings(Math.max(interval.getKey(), low), Math.min(interval.getValue(), high), isoDay);
+			}
+			return total;
+		}
+		
+		boolean contains(int epochDay) {
+			Map.Entry<Integer, Integer> interval = intervals.floorEntry(epochDay);
+			return interval != null && interval.getValue() >= epochDay
+					&& PackedInterval.dayOfWeek(epochDay) == isoDay;
+		}
+
+		private void add(int begin, int end) {
+			intervals.put(begin, end);
+			count += PackedInterval.countMeetings(begin, end, isoDay);
+		}
+
+		private void remove(int begin, int end) {
+			intervals.remove(begin);
+			count -= PackedInterval.countMeetings(begin, end, isoDay);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.ArrayIntervalTree;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+
+/**
+ * Test class for {@link countMeetings.helpers.ArrayIntervalTree}
+ *
+ * @author Alex Lay
+ */
+class ArrayIntervalTreeTest {
+
+	/**
+	 * Should be usable as the backend of CountMeetingsFull
+	 */
+	@Test
+	void testCountMeetingsFull() {
+		MeetingIndexOracle.assertCountMeetingsFull(ArrayIntervalTree::new);
+	}
+
+	/**
+	 * Should leave the same intervals and counts as a MeetingIntervalTree (see
+	 *   MeetingIndexOracle.assertMatchesTree)
+	 */
+	@Test
+	void testMatchesTree() {
+		MeetingIndexOracle.assertMatchesTree(29, ArrayIntervalTree::new, ArrayIntervalTree::toList);
+	}
+
+	/**
+	 * Removed slots should be reused, so removing and putting back meetings
+	 *   doesn't make the arrays any bigger
+	 */
+	@Test
+	void testFreeListReuse() {
+		ArrayIntervalTree arrayTree = new ArrayIntervalTree(1000);
+		for(int x = 0; x < 1000; x++) {
+			arrayTree.insert(new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6), DayOfWeek.MONDAY));
+		}
+		long bytes = arrayTree.getAllocatedBytes();
+		for(int x = 0; x < 1000; x += 10) {
+			MeetingInterval week = new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6), null);
+			arrayTree.removeVacation(week);
+			assertEquals(999, arrayTree.size());
+			arrayTree.insert(new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6), DayOfWeek.MONDAY));
+		}
+		assertEquals(1000, arrayTree.countMeetings());
+		assertEquals(bytes, arrayTree.getAllocatedBytes());
+		assertTrue(arrayTree.getBytesPerInterval() < 2 * ArrayIntervalTree.BYTES_PER_NODE);
+	}
+
+	/**
+	 * Vacations can't be inserted
+	 */
+	@Test
+	void testInsertVacation() {
+		ArrayIntervalTree arrayTree = new ArrayIntervalTree();
+		assertThrows(IllegalArgumentException.class,
+				() -> arrayTree.insert(new MeetingInterval(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(6), null)));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.ArrayIntervalTree#findOverlap(countMeetings.helpers.MeetingInterval)}
+	 *   and {@link countMeetings.helpers.ArrayIntervalTree#removeAllOverlaps(countMeetings.helpers.MeetingInterval)}.
+	 * Should find the same overlaps as MeetingIntervalTree
+	 */
+	@Test
+	void testOverlaps() {
+		ArrayIntervalTree arrayTree = new ArrayIntervalTree();
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		Random random = new Random(37);
+		for(int x = 0; x < 500; x++) {
+			long begin = random.nextInt(3000);
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(30)), DayOfWeek.of(1 + random.nextInt(7)));
+			arrayTree.insert(meeting);
+			tree.insert(meeting);
+		}
+		for(int x = 0; x < 100; x++) {
+			long begin = random.nextInt(3000);
+			DayOfWeek day = x % 2 == 0 ? null : DayOfWeek.of(1 + random.nextInt(7));
+			MeetingInterval value = new MeetingInterval(LocalDate.ofEpochDay(begin), LocalDate.ofEpochDay(begin + random.nextInt(20)), day);
+			MeetingInterval found = arrayTree.findOverlap(value);
+			assertEquals(tree.findOverlap(tree.getRoot(), value) == null, found == null);
+			if(found != null) assertTrue(found.overlaps(value));
+		}
+
+		MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(1000), LocalDate.ofEpochDay(1100), null);
+		List<Long> removed = MeetingIndexOracle.packed(arrayTree.removeAllOverlaps(vacation));
+		assertEquals(MeetingIndexOracle.packed(tree.removeAllOverlaps(vacation)), removed);
+		assertFalse(removed.isEmpty());
+		assertNull(arrayTree.findOverlap(vacation));
+		assertEquals(tree.size(), arrayTree.size());
+		assertEquals(tree.countMeetings(), arrayTree.countMeetings());
+	}
+}
@@ -0,0 +1,86 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.BatchCountMeetings;
+import countMeetings.BatchCountMeetings.BatchResult;
+import countMeetings.CountMeetings;
+import countMeetings.CountMeetingsFull;
+import countMeetings.CountMeetingsMVP;
+
+/**
+ * Test class for {@link countMeetings.BatchCountMeetings}
+ * 
+ * @author Alex Lay
+ */
+class BatchCountMeetingsTest {
+
+	/**
+	 * Test method for {@link countMeetings.BatchCountMeetings#countMeetings(java.util.List)}.
+	 */
+	@Test
+	void testCountMeetings() {
+		String simpleCsvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		String superSimpleCsvPath = "src/countMeetings/csv-files/superSimpleTest.csv";
+		
+		BatchCountMeetings batch = new BatchCountMeetings(new CountMeetingsMVP(), 2);
+		BatchResult result = batch.countMeetings(Arrays.asList(simpleCsvPath, superSimpleCsvPath));
+		assertEquals(87, result.getCounts().get(simpleCsvPath));
+		assertEquals(87, result.getCounts().get(superSimpleCsvPath));
+		assertEquals(174, result.getTotal());
+		assertTrue(result.getFailures().isEmpty());
+	}
+	
+	/**
+	 * Files that are missing, that the CountMeetings can't read (-1) or whose
+	 *   count throws should be failures and not add to the total
+	 */
+	@Test
+	void testFailures() {
+		String simpleCsvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		String missingCsvPath = "src/countMeetings/csv-files/missing.csv";
+		String badCsvPath = "src/countMeetings/csv-files/badInput.csv";
+		String regularCsvPath = "src/countMeetings/csv-files/regularTest.csv";
+		CountMeetings countMeetings = csvPath -> {
+			if(csvPath.equals(badCsvPath)) return -1;
+			if(csvPath.equals(regularCsvPath)) throw new IllegalStateException("broken");
+			return new CountMeetingsMVP().countMeetings(csvPath);
+		};
+		
+		BatchCountMeetings batch = new BatchCountMeetings(countMeetings, 2);
+		BatchResult result = batch.countMeetings(Arrays.asList(simpleCsvPath, missingCsvPath, badCsvPath, regularCsvPath));
+		assertEquals(1, result.getCounts().size());
+		assertEquals(87, result.getTotal());
+		assertEquals(Arrays.asList(missingCsvPath, badCsvPath, regularCsvPath), new ArrayList<String>(result.getFailures().keySet()));
+		assertTrue(result.getFailures().get(missingCsvPath) instanceof NoSuchFileException);
+		assertTrue(result.getFailures().get(badCsvPath) instanceof IOException);
+		assertEquals("broken", result.getFailures().get(regularCsvPath).getMessage());
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.BatchCountMeetings#countMeetingsInDirectory(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsInDirectory(@TempDir Path tempDir) throws IOException {
+		for(int x = 0; x < 10; x++) {
+			Files.copy(Paths.get("src/countMeetings/csv-files/regularTest.csv"), tempDir.resolve("team" + x + ".csv"));
+		}
+		Files.writeString(tempDir.resolve("notes.txt"), "not a calendar");
+		
+		BatchCountMeetings batch = new BatchCountMeetings(new CountMeetingsFull(), 3);
+		BatchResult result = batch.countMeetingsInDirectory(tempDir.toString());
+		assertEquals(10, result.getCounts().size());
+		assertEquals(20, result.getTotal());
+	}
+}
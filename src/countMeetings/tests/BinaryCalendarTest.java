@@ -0,0 +1,106 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.CountMeetingsMVP;
+import countMeetings.helpers.BinaryCalendar;
+import countMeetings.helpers.CSVReader;
+import countMeetings.helpers.IntervalColumns;
+import countMeetings.helpers.MeetingInterval;
+
+/**
+ * Test class for {@link countMeetings.helpers.BinaryCalendar}
+ * 
+ * @author Alex Lay
+ */
+class BinaryCalendarTest {
+	
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Test method for {@link countMeetings.helpers.BinaryCalendar#readMeetingsFull(java.lang.String)}.
+	 * Converting and reading back should give the same intervals as the csv
+	 */
+	@Test
+	void testConvertAndRead() {
+		String csvPath = "src/countMeetings/csv-files/regularTest.csv";
+		String binaryPath = tempDir.resolve("regular.bin").toString();
+		BinaryCalendar calendar = new BinaryCalendar();
+		assertTrue(calendar.convert(csvPath, binaryPath));
+		
+		List[] expected = new CSVReader().readMeetingsFull(csvPath);
+		List[] actual = calendar.readMeetingsFull(binaryPath);
+		for(int x = 0; x < 2; x++) {
+			assertEquals(expected[x].size(), actual[x].size());
+			for(int y = 0; y < expected[x].size(); y++) {
+				assertTrue(((MeetingInterval) expected[x].get(y)).equals((MeetingInterval) actual[x].get(y)));
+			}
+		}
+		assertEquals(2, new CountMeetingsFull().countMeetingsBinary(binaryPath));
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.CountMeetingsMVP#countMeetingsBinary(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsBinary() {
+		String binaryPath = tempDir.resolve("simple.bin").toString();
+		new BinaryCalendar().convert("src/countMeetings/csv-files/simpleTest.csv", binaryPath);
+		assertEquals(87, new CountMeetingsMVP().countMeetingsBinary(binaryPath));
+	}
+	
+	/**
+	 * A flipped bit in the body should fail the checksum
+	 */
+	@Test
+	void testCorruptFile() throws IOException {
+		String binaryPath = tempDir.resolve("corrupt.bin").toString();
+		BinaryCalendar calendar = new BinaryCalendar();
+		calendar.convert("src/countMeetings/csv-files/simpleTest.csv", binaryPath);
+		try(RandomAccessFile file = new RandomAccessFile(binaryPath, "rw")) {
+			file.seek(file.length() - 1);
+			int last = file.read();
+			file.seek(file.length() - 1);
+			file.write(last ^ 1);
+		}
+		IOException e = assertThrows(IOException.class, () -> calendar.readColumns(binaryPath));
+		assertEquals("Corrupt binary calendar file.", e.getMessage());
+		assertEquals(-1, new CountMeetingsMVP().countMeetingsBinary(binaryPath));
+		assertEquals(-1, new CountMeetingsMVP().countMeetingsBinary(tempDir.resolve("missing.bin").toString()));
+		try(RandomAccessFile file = new RandomAccessFile(binaryPath, "rw")) {
+			file.setLength(file.length() / 2);
+		}
+		assertEquals(-1, new CountMeetingsMVP().countMeetingsBinary(binaryPath));
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.IntervalColumns#countMeetings(int, int, int)}.
+	 * Should match MeetingInterval.getMeetingCount, including dates before 1970
+	 */
+	@Test
+	void testCountMeetingsArithmetic() {
+		String dates[][] = {
+			{"2019-12-02", "2020-01-01"}, {"2020-02-01", "2020-03-01"}, {"1969-12-25", "1970-01-10"},
+			{"2018-02-13", "2018-02-14"}, {"2018-02-10", "2018-02-12"}, {"1900-01-01", "2100-12-31"}
+		};
+		String days[] = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+		for(String[] interval : dates) {
+			for(String day : days) {
+				MeetingInterval m = new MeetingInterval(interval[0], interval[1], day);
+				IntervalColumns columns = new IntervalColumns();
+				columns.add(m);
+				assertEquals(m.getMeetingCount(), columns.countMeetings());
+			}
+		}
+	}
+}
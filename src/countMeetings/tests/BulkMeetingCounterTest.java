@@ -0,0 +1,45 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.BulkMeetingCounter;
+import countMeetings.helpers.IntervalColumns;
+import countMeetings.helpers.PackedInterval;
+
+/**
+ * Test class for {@link countMeetings.helpers.BulkMeetingCounter}
+ *
+ * @author Alex Lay
+ */
+class BulkMeetingCounterTest {
+
+	/**
+	 * Test method for {@link countMeetings.helpers.BulkMeetingCounter#countMeetings(int[], int[], byte[], int, int)}.
+	 * Should match PackedInterval.countMeetings row by row, including dates far before 1970,
+	 *   vacations and intervals that end before they begin.
+	 */
+	@Test
+	void testCountMeetings() {
+		Random random = new Random(42);
+		IntervalColumns columns = new IntervalColumns();
+		long expected = 0;
+		for(int x = 0; x < 100003; x++) {
+			// about 270,000 years either side of 1970, or close to it
+			int begin = x % 3 == 0 ? random.nextInt(20000) - 10000 : random.nextInt(200000000) - 100000000;
+			int end = begin + random.nextInt(800) - 20;
+			int day = random.nextInt(8);
+			columns.add(begin, end, day);
+
+			long count = BulkMeetingCounter.countMeetings(columns.getBegin(), columns.getEnd(), columns.getDay(), x, x + 1);
+			int expectedCount = day == 0 ? 0 : PackedInterval.countMeetings(begin, end, day);
+			assertEquals(expectedCount, count, "row " + x);
+			expected += expectedCount;
+		}
+		assertEquals(expected, BulkMeetingCounter.countMeetings(columns));
+		assertEquals(expected, columns.countMeetings());
+	}
+}
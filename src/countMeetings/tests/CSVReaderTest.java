@@ -7,14 +7,25 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import countMeetings.CountMeetingsMVP;
 import countMeetings.helpers.CSVReader;
 import countMeetings.helpers.MeetingInterval;
 
@@ -52,4 +63,82 @@ class CSVReaderTest {
 	    csvReader.readMeetingsBasic(csvPath);
 	    assertEquals("Problem reading from file.", outContent.toString());
 	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.CSVReader#readMeetingsBasicMapped(java.lang.String)}.
+	 */
+	@Test
+	void testReadMeetingsBasicMapped() {
+		CSVReader csvReader = new CSVReader();
+		String csvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		assertSameIntervals(csvReader.readMeetingsBasic(csvPath), csvReader.readMeetingsBasicMapped(csvPath));
+		
+		final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+	    System.setOut(new PrintStream(outContent));
+	    csvReader.readMeetingsBasicMapped("/Not/a/correct/path");
+	    assertEquals("Couldn't find file.", outContent.toString());
+	    
+	    outContent.reset();
+	    List<MeetingInterval> meetings = csvReader.readMeetingsBasicMapped("src/countMeetings/csv-files/badInput.csv");
+	    assertEquals("Problem reading from file.", outContent.toString());
+	    assertEquals(1, meetings.size());
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.CSVReader#readMeetingsFullMapped(java.lang.String)}.
+	 */
+	@Test
+	void testReadMeetingsFullMapped() {
+		CSVReader csvReader = new CSVReader();
+		String csvPath = "src/countMeetings/csv-files/regularTest.csv";
+		List[] expected = csvReader.readMeetingsFull(csvPath);
+		List[] actual = csvReader.readMeetingsFullMapped(csvPath);
+		assertSameIntervals(expected[0], actual[0]);
+		assertSameIntervals(expected[1], actual[1]);
+		assertEquals(3, actual[1].size());
+	}
+	
+	/**
+	 * Gzipped files should read the same as the csv they came from
+	 */
+	@Test
+	void testReadCompressed(@TempDir Path tempDir) throws IOException {
+		CSVReader csvReader = new CSVReader();
+		String csvPath = "src/countMeetings/csv-files/regularTest.csv";
+		String gzipPath = tempDir.resolve("regularTest.csv.gz").toString();
+		try(OutputStream out = new GZIPOutputStream(new FileOutputStream(gzipPath))) {
+			Files.copy(Paths.get(csvPath), out);
+		}
+		
+		List[] expected = csvReader.readMeetingsFull(csvPath);
+		List[] actual = csvReader.readMeetingsFull(gzipPath);
+		List[] actualMapped = csvReader.readMeetingsFullMapped(gzipPath);
+		for(int x = 0; x < 2; x++) {
+			assertSameIntervals(expected[x], actual[x]);
+			assertSameIntervals(expected[x], actualMapped[x]);
+		}
+	}
+	
+	/**
+	 * A gzipped file bigger than the scanner's buffer, so rows are split across reads
+	 */
+	@Test
+	void testStreamCompressed(@TempDir Path tempDir) throws IOException {
+		String gzipPath = tempDir.resolve("big.csv.gz").toString();
+		try(PrintWriter writer = new PrintWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(gzipPath)), StandardCharsets.UTF_8))) {
+			writer.print("\uFEFF");
+			for(int x = 0; x < 100000; x++) {
+				writer.print("2018-05-02,2018-12-31,Wednesday\n");
+			}
+		}
+		assertEquals(100000, new CSVReader().readMeetingsBasic(gzipPath).size());
+		assertEquals(35L * 100000, new CountMeetingsMVP().countMeetingsStreaming(gzipPath));
+	}
+	
+	void assertSameIntervals(List<MeetingInterval> expected, List<MeetingInterval> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int x = 0; x < expected.size(); x++) {
+			assertTrue(expected.get(x).equals(actual.get(x)));
+		}
+	}
 }
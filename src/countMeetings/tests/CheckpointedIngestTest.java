@@ -0,0 +1,126 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.helpers.CheckpointedIngest;
+
+/**
+ * Test class for {@link countMeetings.helpers.CheckpointedIngest}
+ * 
+ * @author Alex Lay
+ */
+class CheckpointedIngestTest {
+	
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Bad rows should be written to the rejected file and skipped
+	 */
+	@Test
+	void testRejectedRows() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		StringBuilder csv = new StringBuilder();
+		for(int x = 0; x < 1000; x++) {
+			csv.append(x % 100 == 50 ? "2018-05-02,2018-13-31,Wednesday\n" : "2018-05-02,2018-12-31,Wednesday\n");
+		}
+		Files.writeString(csvPath, csv);
+		
+		CheckpointedIngest ingest = new CheckpointedIngest(csvPath.toString(), 4096);
+		assertEquals(35L * 990, ingest.countMeetingsBasic());
+		assertEquals(10, ingest.getRejectedRows());
+		List<String> rejected = Files.readAllLines(Path.of(ingest.getRejectedPath()));
+		assertEquals(10, rejected.size());
+		assertTrue(rejected.get(0).startsWith("51: "));
+		assertTrue(rejected.get(0).endsWith("2018-05-02,2018-13-31,Wednesday"));
+		assertFalse(Files.exists(Path.of(ingest.getCheckpointPath())));
+	}
+	
+	/**
+	 * Vacations in a basic file are rejected with the rest of their row, like
+	 *   malformed rows
+	 */
+	@Test
+	void testRejectedVacations() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		Files.writeString(csvPath, "2018-05-02,2018-12-31,Wednesday\n2018-06-01,2018-06-30,Vacation\n2018-05-02,2018-12-31,Wednesday\n");
+		
+		CheckpointedIngest ingest = new CheckpointedIngest(csvPath.toString());
+		assertEquals(35L * 2, ingest.countMeetingsBasic());
+		assertEquals(1, ingest.getRejectedRows());
+		List<String> rejected = Files.readAllLines(Path.of(ingest.getRejectedPath()));
+		assertEquals(1, rejected.size());
+		assertTrue(rejected.get(0).startsWith("2: "));
+		assertTrue(rejected.get(0).endsWith(": 2018-06-01,2018-06-30,Vacation"));
+	}
+	
+	/**
+	 * A checkpoint left by a full ingest isn't resumed by a basic one. Starting
+	 *   over should delete its state file along with it.
+	 */
+	@Test
+	void testCheckpointForOtherMode() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		StringBuilder csv = new StringBuilder();
+		for(int x = 0; x < 2000; x++) {
+			csv.append("2018-02-10,2018-03-16,Friday\n");
+		}
+		csv.append("2018-02-13,2018-02-14,").append("x".repeat(10000)).append('\n');
+		Files.writeString(csvPath, csv);
+		
+		CheckpointedIngest ingest = new CheckpointedIngest(csvPath.toString(), 4096);
+		assertThrows(IOException.class, () -> ingest.ingestFull());
+		assertEquals(1, countStateFiles());
+		
+		Files.writeString(csvPath, csv.substring(0, 2000 * 29));
+		assertEquals(5L * 2000, ingest.countMeetingsBasic());
+		assertEquals(0, countStateFiles());
+		assertFalse(Files.exists(Path.of(ingest.getCheckpointPath())));
+	}
+	
+	long countStateFiles() throws IOException {
+		try(Stream<Path> files = Files.list(tempDir)) {
+			return files.filter(path -> path.getFileName().toString().endsWith(".bin")).count();
+		}
+	}
+	
+	/**
+	 * A row that is too long to fit in a window stops the ingest.
+	 * After the row is fixed, running again resumes from the last checkpoint.
+	 */
+	@Test
+	void testResume() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		StringBuilder csv = new StringBuilder();
+		for(int x = 0; x < 2000; x++) {
+			csv.append(x % 2 == 0 ? "2018-02-10,2018-03-16,Friday\n" : "2019-01-01,2019-01-20,Bogus\n");
+		}
+		String goodRows = csv.toString();
+		csv.append("2018-02-13,2018-02-14,").append("x".repeat(10000)).append('\n');
+		csv.append("2018-02-01,2018-02-28,Vacation\n");
+		Files.writeString(csvPath, csv);
+		
+		CheckpointedIngest ingest = new CheckpointedIngest(csvPath.toString(), 4096);
+		assertThrows(IOException.class, () -> ingest.ingestFull());
+		assertTrue(Files.exists(Path.of(ingest.getCheckpointPath())));
+		long rejectedBeforeResume = ingest.getRejectedRows();
+		assertTrue(rejectedBeforeResume > 0);
+		
+		Files.writeString(csvPath, goodRows + "2018-02-13,2018-02-14,Wednesday\n2018-02-01,2018-02-28,Vacation\n");
+		CountMeetingsFull countMeetingsFull = new CountMeetingsFull();
+		// Fridays from 2018-03-02 to 2018-03-16 plus none on Wednesday
+		assertEquals(3, countMeetingsFull.countMeetingsResumable(csvPath.toString()));
+		assertEquals(1000, Files.readAllLines(Path.of(ingest.getRejectedPath())).size());
+		assertFalse(Files.exists(Path.of(ingest.getCheckpointPath())));
+	}
+}
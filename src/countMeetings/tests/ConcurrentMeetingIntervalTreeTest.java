@@ -0,0 +1,112 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.ConcurrentMeetingIntervalTree;
+import countMeetings.helpers.MeetingInterval;
+
+/**
+ * Test class for {@link countMeetings.helpers.ConcurrentMeetingIntervalTree}
+ *
+ * @author Alex Lay
+ */
+class ConcurrentMeetingIntervalTreeTest {
+
+	/**
+	 * Should be usable as the backend of CountMeetingsFull
+	 */
+	@Test
+	void testCountMeetingsFull() {
+		MeetingIndexOracle.assertCountMeetingsFull(ConcurrentMeetingIntervalTree::new);
+	}
+
+	/**
+	 * With one thread the optimistic reads should give the same answers as a
+	 *   MeetingIntervalTree (see MeetingIndexOracle.assertMatchesTree)
+	 */
+	@Test
+	void testMatchesTree() {
+		MeetingIndexOracle.assertMatchesTree(47, ConcurrentMeetingIntervalTree::new);
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.ConcurrentMeetingIntervalTree#findOverlap(MeetingInterval)}
+	 *   and {@link countMeetings.helpers.ConcurrentMeetingIntervalTree#removeAllOverlaps(MeetingInterval)}.
+	 */
+	@Test
+	void testFindAndRemoveOverlaps() {
+		ConcurrentMeetingIntervalTree tree = new ConcurrentMeetingIntervalTree();
+		for(int x = 0; x < 10; x++) {
+			tree.insert(new MeetingInterval(LocalDate.ofEpochDay(14 * x), LocalDate.ofEpochDay(14 * x + 6), DayOfWeek.MONDAY));
+		}
+		MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(30), null);
+		assertNotNull(tree.findOverlap(vacation));
+		assertNull(tree.findOverlap(new MeetingInterval(LocalDate.ofEpochDay(7), LocalDate.ofEpochDay(13), null)));
+		assertEquals(3, tree.removeAllOverlaps(vacation).size());
+		assertNull(tree.findOverlap(vacation));
+		assertEquals(7, tree.countMeetings());
+	}
+
+	/**
+	 * Readers running while another thread inserts and removes vacations should
+	 *   never see half of an update. Every year gets a whole meeting and then a
+	 *   vacation that removes it again, so a count over a year is either 0 or all
+	 *   of it and the total is never more than one year's worth
+	 */
+	@Test
+	void testConcurrentReads() throws InterruptedException {
+		ConcurrentMeetingIntervalTree tree = new ConcurrentMeetingIntervalTree();
+		for(int x = 0; x < 500; x++) {
+			tree.insert(new MeetingInterval(LocalDate.ofEpochDay(-7000 + 7 * x), LocalDate.ofEpochDay(-7000 + 7 * x + 6),
+					DayOfWeek.of(1 + x % 7)));
+		}
+		AtomicReference<String> problem = new AtomicReference<String>();
+		Thread writer = new Thread(() -> {
+			for(int year = 0; year < 2000; year++) {
+				LocalDate first = LocalDate.ofEpochDay(365L * year), last = first.plusDays(364);
+				tree.insert(new MeetingInterval(first, last, DayOfWeek.of(1 + year % 7)));
+				tree.removeVacation(new MeetingInterval(first, last, null));
+			}
+		});
+		writer.start();
+		List<Thread> readers = new ArrayList<Thread>();
+		for(int r = 0; r < 3; r++) {
+			Thread reader = new Thread(() -> {
+				Random random = new Random();
+				while(writer.isAlive()) {
+					try {
+						long total = tree.countMeetings();
+						if(total < 500 || total > 500 + 53) problem.set("total " + total);
+						LocalDate old = LocalDate.ofEpochDay(-7000);
+						long before = tree.countMeetings(old, old.plusDays(3499));
+						if(before != 500) problem.set("before " + before);
+						long year = random.nextInt(2000);
+						LocalDate first = LocalDate.ofEpochDay(365L * year);
+						long count = tree.countMeetings(first, first.plusDays(364), DayOfWeek.of(1 + (int) (year % 7)));
+						if(count != 0 && count != 52 && count != 53) problem.set("year " + count);
+						// epoch day -6996 is the Monday of the first week
+						if(!tree.haveMeeting(LocalDate.ofEpochDay(-6996))) problem.set("lost a meeting");
+					}
+					catch(RuntimeException e) {
+						problem.set(e.toString());
+					}
+				}
+			});
+			reader.start();
+			readers.add(reader);
+		}
+		writer.join();
+		for(Thread reader : readers) reader.join();
+		assertNull(problem.get());
+		assertEquals(500, tree.countMeetings());
+	}
+}
@@ -5,6 +5,9 @@ package countMeetings.tests;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
 import org.junit.jupiter.api.Test;
 
 import countMeetings.CountMeetingsMVP;
@@ -26,4 +29,68 @@ class CountMeetingsMVPTest {
 		assertEquals(mvp.countMeetings(csvPath), 87);
 	}
 
+	/**
+	 * Test method for {@link countMeetings.CountMeetingsMVP#countMeetingsStreaming(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsStreaming() {
+		String csvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		
+		CountMeetingsMVP mvp = new CountMeetingsMVP();
+		assertEquals(87, mvp.countMeetingsStreaming(csvPath));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.CountMeetingsMVP#countMeetingsParallel(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsParallel() {
+		String csvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		
+		CountMeetingsMVP mvp = new CountMeetingsMVP();
+		assertEquals(87, mvp.countMeetingsParallel(csvPath));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.CountMeetingsMVP#countMeetingsBulk(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsBulk() {
+		String csvPath = "src/countMeetings/csv-files/simpleTest.csv";
+		
+		CountMeetingsMVP mvp = new CountMeetingsMVP();
+		assertEquals(87, mvp.countMeetingsBulk(csvPath));
+	}
+
+	/**
+	 * A file that can't be read shouldn't look like a real count
+	 */
+	@Test
+	void testBadInput() {
+		CountMeetingsMVP mvp = new CountMeetingsMVP();
+		assertEquals(-1, mvp.countMeetingsStreaming("src/countMeetings/csv-files/badInput.csv"));
+		assertEquals(-1, mvp.countMeetingsBulk("src/countMeetings/csv-files/badInput.csv"));
+		assertEquals(-1, mvp.countMeetingsStreaming("src/countMeetings/csv-files/missing.csv"));
+		assertEquals(-1, mvp.countMeetingsBulk("src/countMeetings/csv-files/missing.csv"));
+		assertEquals(-1, mvp.countMeetingsParallel("src/countMeetings/csv-files/badInput.csv"));
+		assertEquals(-1, mvp.countMeetingsParallel("src/countMeetings/csv-files/missing.csv"));
+	}
+
+	/**
+	 * A vacation in a basic file should be reported with its row
+	 */
+	@Test
+	void testBulkVacationRow() {
+		PrintStream err = System.err;
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		System.setErr(new PrintStream(errors, true));
+		try {
+			assertEquals(-1, new CountMeetingsMVP().countMeetingsBulk("src/countMeetings/csv-files/regularTest.csv"));
+		}
+		finally {
+			System.setErr(err);
+		}
+		assertTrue(errors.toString().contains("Vacations aren't allowed in a basic file on row 9."));
+	}
+
 }
@@ -0,0 +1,61 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.DateParser;
+
+/**
+ * Test class for {@link countMeetings.helpers.DateParser}
+ * 
+ * @author Alex Lay
+ */
+class DateParserTest {
+
+	/**
+	 * Test method for {@link countMeetings.helpers.DateParser#parseEpochDay(java.lang.CharSequence)}.
+	 * Every day from 1899 to 2101 should match LocalDate
+	 */
+	@Test
+	void testParseEpochDay() {
+		DateParser parser = new DateParser();
+		LocalDate date = LocalDate.parse("1899-01-01");
+		while(date.getYear() < 2101) {
+			assertEquals(date.toEpochDay(), parser.parseEpochDay(date.toString()));
+			date = date.plusDays(1);
+		}
+		// cached the second time around
+		assertEquals(LocalDate.parse("2020-02-29").toEpochDay(), parser.parseEpochDay("2020-02-29"));
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.DateParser#parseDate(java.nio.ByteBuffer, int, int)}.
+	 */
+	@Test
+	void testParseDateFromBytes() {
+		DateParser parser = new DateParser();
+		ByteBuffer buffer = ByteBuffer.wrap("2018-02-02,2019-12-31".getBytes());
+		assertEquals(LocalDate.parse("2018-02-02"), parser.parseDate(buffer, 0, 10));
+		assertEquals(LocalDate.parse("2019-12-31"), parser.parseDate(buffer, 11, 21));
+	}
+	
+	/**
+	 * Malformed dates should say what is wrong with them
+	 */
+	@Test
+	void testMalformedDates() {
+		DateParser parser = new DateParser();
+		String badDates[] = {"", "2018-2-02", "2018/02/02", "2018-02-0a", "2018-13-02",
+				"2018-00-10", "2018-02-30", "2019-02-29", "1900-02-29", "0000-00-00"};
+		for(String badDate : badDates) {
+			DateTimeParseException e = assertThrows(DateTimeParseException.class, () -> parser.parseEpochDay(badDate));
+			assertTrue(e.getMessage().startsWith("Invalid date '" + badDate + "'"));
+		}
+		assertEquals(LocalDate.parse("2000-02-29").toEpochDay(), parser.parseEpochDay("2000-02-29"));
+	}
+}
@@ -0,0 +1,132 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.helpers.MeetingIndex;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PackedInterval;
+
+/**
+ * Checks that a MeetingIndex gives the same answers as a MeetingIntervalTree
+ *   (and as marking every meeting day in a set), so every index is tested the
+ *   same way
+ *
+ * @author Alex Lay
+ */
+class MeetingIndexOracle {
+
+	private MeetingIndexOracle() {
+	}
+
+	/**
+	 * The index should be usable as the backend of CountMeetingsFull
+	 *
+	 * @param factory = makes a new, empty index
+	 */
+	static void assertCountMeetingsFull(Supplier<MeetingIndex> factory) {
+		CountMeetingsFull countMeetingsFull = new CountMeetingsFull(factory);
+		assertEquals(2, countMeetingsFull.countMeetings("src/countMeetings/csv-files/regularTest.csv"));
+		assertEquals(87, countMeetingsFull.countMeetings("src/countMeetings/csv-files/superSimpleTest.csv"));
+	}
+
+	/**
+	 * Same as assertMatchesTree(seed, factory, toList) for an index that can't list its intervals
+	 */
+	static void assertMatchesTree(long seed, Supplier<MeetingIndex> factory) {
+		assertMatchesTree(seed, factory, null);
+	}
+
+	/**
+	 * Random meetings (one at a time and in bulk, a few of them very long) and
+	 *   vacations (one at a time and in a list, a few of them covering most of the
+	 *   index) should leave the same counts, haveMeeting and date range answers
+	 *   as a MeetingIntervalTree
+	 *
+	 * @param seed = the seed for the random meetings and vacations
+	 * @param factory = makes a new, empty index
+	 * @param toList = lists the index's intervals to compare them with the tree's (or null to skip that)
+	 */
+	static <T extends MeetingIndex> void assertMatchesTree(long seed, Supplier<T> factory, Function<T, List<MeetingInterval>> toList) {
+		Random random = new Random(seed);
+		for(int trial = 0; trial < 10; trial++) {
+			T index = factory.get();
+			MeetingIntervalTree tree = new MeetingIntervalTree();
+			Set<Long> meetingDays = new HashSet<Long>();
+			List<MeetingInterval> bulk = new ArrayList<MeetingInterval>();
+			for(int x = 0; x < 2000; x++) {
+				long begin = 17500 + random.nextInt(3000);
+				MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+						LocalDate.ofEpochDay(begin + (x % 100 == 0 ? random.nextInt(1000) : random.nextInt(60))),
+						DayOfWeek.of(1 + random.nextInt(7)));
+				addMeetingDays(meetingDays, meeting.getPacked());
+				if(x % 4 == 0 && x <= 1000) bulk.add(meeting);
+				else {
+					index.insert(meeting);
+					tree.insert(meeting);
+				}
+				if(x == 1000) {
+					index.insertList(bulk);
+					tree.insertList(bulk);
+				}
+			}
+			List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+			for(int x = 0; x < 40; x++) {
+				long begin = 17500 + random.nextInt(3000);
+				long end = begin + (x % 10 == 0 ? random.nextInt(2000) : random.nextInt(30));
+				MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(begin), LocalDate.ofEpochDay(end), null);
+				meetingDays.removeIf(day -> day >= begin && day <= end);
+				if(x < 20) {
+					index.removeVacation(vacation);
+					tree.removeVacation(vacation);
+				}
+				else vacations.add(vacation);
+			}
+			index.removeVacations(vacations);
+			tree.removeVacations(vacations);
+
+			assertEquals(meetingDays.size(), index.countMeetings());
+			if(toList != null) assertEquals(packed(tree.toList()), packed(toList.apply(index)));
+			for(long day = 17490; day < 20600; day++) {
+				assertEquals(meetingDays.contains(day), index.haveMeeting(LocalDate.ofEpochDay(day)));
+			}
+			for(int x = 0; x < 200; x++) {
+				LocalDate from = LocalDate.ofEpochDay(17400 + random.nextInt(3300));
+				LocalDate to = from.plusDays(random.nextInt(400));
+				DayOfWeek day = DayOfWeek.of(1 + random.nextInt(7));
+				assertEquals(tree.countMeetings(from, to), index.countMeetings(from, to));
+				assertEquals(tree.countMeetings(from, to, day), index.countMeetings(from, to, day));
+			}
+		}
+	}
+
+	/**
+	 * @return the packed intervals, sorted, so lists in any order can be compared
+	 */
+	static List<Long> packed(List<MeetingInterval> intervals) {
+		List<Long> packed = new ArrayList<Long>();
+		for(MeetingInterval m : intervals) packed.add(m.getPacked());
+		packed.sort(null);
+		return packed;
+	}
+
+	/**
+	 * Adds every day the meeting is on to days
+	 */
+	static void addMeetingDays(Set<Long> days, long meeting) {
+		for(long day = PackedInterval.begin(meeting); day <= PackedInterval.end(meeting); day++) {
+			if(PackedInterval.dayOfWeek(day) == PackedInterval.day(meeting)) days.add(day);
+		}
+	}
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Objects;
 
 import org.junit.jupiter.api.Test;
@@ -62,4 +63,28 @@ class MeetingIntervalTest {
 		}
 	}
 
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingInterval#mapDayOfWeek(java.lang.String)}.
+	 * Makes sure abbreviations, other cases, and ISO numbers are mapped too
+	 */
+	@Test
+	void testMapDayOfWeekVariants() {
+		MeetingInterval meetingInterval = new MeetingInterval();
+		String daysOfWeek[][] = {
+			{"monday", "MON", "1"}, {"TUESDAY", "tue", "2"}, {"wEdNeSdAy", "Wed", "3"},
+			{"Thursday", "thu", "4"}, {"friday", "Fri", "5"}, {"SATURDAY", "sat", "6"}, {"sunday", "SUN", "7"}
+		};
+		
+		for (int x = 0; x < daysOfWeek.length; x++) {
+			for (String day : daysOfWeek[x]) {
+				assertEquals(x + 1, meetingInterval.mapDayOfWeek(day).getValue());
+			}
+		}
+		
+		String notDays[] = {"", "M", "Mo", "Mond", "Mondays", "0", "8", "Vacation", "Tuesday "};
+		for (String notDay : notDays) {
+			assertThrows(DateTimeParseException.class, () -> meetingInterval.mapDayOfWeek(notDay));
+		}
+	}
+
 }
@@ -2,14 +2,22 @@ package countMeetings.tests;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.junit.jupiter.api.Test;
 
 import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalNode;
 import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PackedInterval;
 
 class MeetingIntervalTreeTest {
 
@@ -20,6 +28,308 @@ class MeetingIntervalTreeTest {
 		tree.printTree();
 	}
 	
+	/**
+	 * Random meetings and vacations should give the same count as marking every
+	 *   meeting day in a set, and the tree should stay a valid red-black tree
+	 */
+	@Test
+	void testRandomInsertAndRemoveVacation() {
+		Random random = new Random(7);
+		for(int trial = 0; trial < 20; trial++) {
+			MeetingIntervalTree tree = new MeetingIntervalTree();
+			Set<Long> meetingDays = new HashSet<Long>();
+			for(int x = 0; x < 300; x++) {
+				long begin = 17500 + random.nextInt(2000);
+				MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+						LocalDate.ofEpochDay(begin + random.nextInt(60)), DayOfWeek.of(1 + random.nextInt(7)));
+				tree.insert(meeting);
+				MeetingIndexOracle.addMeetingDays(meetingDays, meeting.getPacked());
+				checkTree(tree);
+			}
+			for(int x = 0; x < 20; x++) {
+				long begin = 17500 + random.nextInt(2000);
+				MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(begin),
+						LocalDate.ofEpochDay(begin + random.nextInt(30)), null);
+				tree.removeVacation(vacation);
+				meetingDays.removeIf(day -> day >= PackedInterval.begin(vacation.getPacked())
+						&& day <= PackedInterval.end(vacation.getPacked()));
+				checkTree(tree);
+			}
+			assertEquals(meetingDays.size(), (int) tree.countMeetings(tree.getRoot()));
+		}
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingIntervalTree#remove(countMeetings.helpers.MeetingIntervalNode)}.
+	 * Removing every node (in random order) should keep the tree valid until it's empty
+	 */
+	@Test
+	void testRemove() {
+		Random random = new Random(3);
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		for(int x = 0; x < 500; x++) {
+			// every meeting is on its own week, so none of them merge
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7)));
+			meetings.add(meeting);
+		}
+		Collections.shuffle(meetings, random);
+		tree.insertList(meetings);
+		assertEquals(500, tree.toList().size());
+		
+		Collections.shuffle(meetings, random);
+		int count = tree.countMeetings(tree.getRoot());
+		for(MeetingInterval meeting : meetings) {
+			MeetingIntervalNode node = tree.findOverlap(tree.getRoot(), meeting);
+			assertNotNull(node);
+			assertEquals(meeting.getPacked(), node.getValue().getPacked());
+			tree.remove(node);
+			count -= meeting.getMeetingCount();
+			checkTree(tree);
+			assertEquals(count, (int) tree.countMeetings(tree.getRoot()));
+		}
+		assertNull(tree.getRoot());
+	}
+	
+	/**
+	 * Inserting a lot of meetings in sorted order shouldn't overflow the stack
+	 */
+	@Test
+	void testLargeSortedInsert() {
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		int count = 0;
+		for(int x = 0; x < 100000; x++) {
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6),
+					DayOfWeek.MONDAY);
+			tree.insert(meeting);
+			count++;
+		}
+		assertEquals(count, (int) tree.countMeetings(tree.getRoot()));
+		assertEquals(count, tree.toList().size());
+		checkTree(tree);
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingIntervalTree#getAugmentationVisits()}.
+	 * Maxes should stop propagating once they stop changing, so an insert shouldn't
+	 *   visit anywhere near the whole path to the root (about 2 log N nodes)
+	 */
+	@Test
+	void testAugmentationVisits() {
+		Random random = new Random(11);
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		for(int x = 0; x < 50000; x++) {
+			meetings.add(new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6),
+					DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		Collections.shuffle(meetings, random);
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		// one at a time (insertList would bulk load)
+		for(MeetingInterval meeting : meetings) {
+			tree.insert(meeting);
+		}
+		checkTree(tree);
+		assertTrue(tree.getAugmentationVisits() < 10L * meetings.size());
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingIntervalTree#insertList(java.util.List)}.
+	 * Bulk loading overlapping meetings (into an empty tree and into one that already
+	 *   has meetings) should give a valid tree with the same intervals as inserting
+	 *   them one at a time
+	 */
+	@Test
+	void testBulkLoad() {
+		Random random = new Random(13);
+		for(int trial = 0; trial < 20; trial++) {
+			List<MeetingInterval> first = new ArrayList<MeetingInterval>();
+			List<MeetingInterval> second = new ArrayList<MeetingInterval>();
+			Set<Long> meetingDays = new HashSet<Long>();
+			for(int x = 0; x < 1 + random.nextInt(600); x++) {
+				long begin = 17500 + random.nextInt(2000);
+				MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+						LocalDate.ofEpochDay(begin + random.nextInt(60)), DayOfWeek.of(1 + random.nextInt(7)));
+				(x % 3 == 0 ? first : second).add(meeting);
+				MeetingIndexOracle.addMeetingDays(meetingDays, meeting.getPacked());
+			}
+			
+			MeetingIntervalTree oneAtATime = new MeetingIntervalTree();
+			for(MeetingInterval meeting : first) oneAtATime.insert(meeting);
+			for(MeetingInterval meeting : second) oneAtATime.insert(meeting);
+			MeetingIntervalTree bulk = new MeetingIntervalTree();
+			bulk.insertList(first);
+			checkTree(bulk);
+			bulk.insertList(second);
+			checkTree(bulk);
+			
+			assertEquals(meetingDays.size(), bulk.countMeetings());
+			assertEquals(oneAtATime.size(), bulk.size());
+			assertEquals(sortedPacked(oneAtATime), sortedPacked(bulk));
+			for(long day = 17490; day < 19600; day++) {
+				assertEquals(meetingDays.contains(day), bulk.haveMeeting(LocalDate.ofEpochDay(day)));
+			}
+		}
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingIntervalTree#collectOverlaps(countMeetings.helpers.MeetingInterval)}.
+	 * Should find exactly the intervals that overlap, for meetings and vacations
+	 */
+	@Test
+	void testCollectOverlaps() {
+		Random random = new Random(17);
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		for(int x = 0; x < 2000; x++) {
+			long begin = 17500 + random.nextInt(5000);
+			tree.insert(new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(60)), DayOfWeek.of(1 + random.nextInt(7))));
+		}
+		List<MeetingInterval> intervals = tree.toList();
+		for(int x = 0; x < 500; x++) {
+			long begin = 17450 + random.nextInt(5100);
+			MeetingInterval query = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(200)), x % 2 == 0 ? null : DayOfWeek.of(1 + random.nextInt(7)));
+			List<Long> expected = new ArrayList<Long>();
+			for(MeetingInterval interval : intervals) {
+				if(interval.overlaps(query)) expected.add(interval.getPacked());
+			}
+			List<Long> found = new ArrayList<Long>();
+			for(MeetingIntervalNode node : tree.collectOverlaps(query)) {
+				found.add(node.getValue().getPacked());
+			}
+			Collections.sort(expected);
+			Collections.sort(found);
+			assertEquals(expected, found);
+		}
+	}
+	
+	/**
+	 * A vacation that overlaps most of the tree (so it gets rebuilt instead of
+	 *   removing nodes one at a time) should still leave a valid tree and the
+	 *   right count
+	 */
+	@Test
+	void testRemoveLongVacation() {
+		Random random = new Random(19);
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		Set<Long> meetingDays = new HashSet<Long>();
+		for(int x = 0; x < 5000; x++) {
+			long begin = 17500 + random.nextInt(3000);
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(20)), DayOfWeek.of(1 + random.nextInt(7)));
+			tree.insert(meeting);
+			MeetingIndexOracle.addMeetingDays(meetingDays, meeting.getPacked());
+		}
+		MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(17800), LocalDate.ofEpochDay(20000), null);
+		int overlaps = tree.collectOverlaps(vacation).size();
+		assertTrue(overlaps > tree.size() / 2);
+		tree.removeVacation(vacation);
+		meetingDays.removeIf(day -> day >= 17800 && day <= 20000);
+		checkTree(tree);
+		assertEquals(meetingDays.size(), tree.countMeetings());
+		assertTrue(tree.collectOverlaps(vacation).isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingIntervalTree#countMeetings(java.time.LocalDate, java.time.LocalDate)}.
+	 * Date range counts (for every day and for one day of the week) should match
+	 *   counting the meeting days in a set
+	 */
+	@Test
+	void testCountMeetingsRange() {
+		Random random = new Random(23);
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		Set<Long> meetingDays = new HashSet<Long>();
+		for(int x = 0; x < 3000; x++) {
+			long begin = 17500 + random.nextInt(3000);
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(90)), DayOfWeek.of(1 + random.nextInt(7)));
+			tree.insert(meeting);
+			MeetingIndexOracle.addMeetingDays(meetingDays, meeting.getPacked());
+		}
+		for(int x = 0; x < 30; x++) {
+			long begin = 17500 + random.nextInt(3000);
+			long end = begin + random.nextInt(30);
+			tree.removeVacation(new MeetingInterval(LocalDate.ofEpochDay(begin), LocalDate.ofEpochDay(end), null));
+			meetingDays.removeIf(day -> day >= begin && day <= end);
+		}
+		checkTree(tree);
+		
+		for(int x = 0; x < 1000; x++) {
+			long from = 17400 + random.nextInt(3300);
+			long to = from + random.nextInt(400) - 10;
+			DayOfWeek day = DayOfWeek.of(1 + random.nextInt(7));
+			long expected = 0, expectedDay = 0;
+			for(long date : meetingDays) {
+				if(date < from || date > to) continue;
+				expected++;
+				if(PackedInterval.dayOfWeek(date) == day.getValue()) expectedDay++;
+			}
+			assertEquals(expected, tree.countMeetings(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to)));
+			assertEquals(expectedDay, tree.countMeetings(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to), day));
+		}
+		assertEquals(meetingDays.size(), tree.countMeetings(LocalDate.MIN, LocalDate.MAX));
+	}
+	
+	List<Long> sortedPacked(MeetingIntervalTree tree) {
+		List<Long> packed = new ArrayList<Long>();
+		for(MeetingInterval interval : tree.toList()) packed.add(interval.getPacked());
+		Collections.sort(packed);
+		return packed;
+	}
+	
+	/**
+	 * Checks the red-black properties, the parent links, the sort order, the maxes and the counts
+	 */
+	void checkTree(MeetingIntervalTree tree) {
+		MeetingIntervalNode root = tree.getRoot();
+		if(root == null) return;
+		assertNull(root.getParent());
+		assertEquals('B', root.getColor());
+		checkNode(root);
+	}
+	
+	/**
+	 * @return the black height of node
+	 */
+	int checkNode(MeetingIntervalNode node) {
+		if(node == null) return 1;
+		LocalDate max = LocalDate.ofEpochDay(PackedInterval.end(node.getValue().getPacked()));
+		DayOfWeek day = DayOfWeek.of(PackedInterval.day(node.getValue().getPacked()));
+		LocalDate dayMax = max;
+		for(MeetingIntervalNode child : new MeetingIntervalNode[] { node.getLeft(), node.getRight() }) {
+			if(child == null) continue;
+			assertSame(node, child.getParent());
+			if(node.getColor() == 'R') assertEquals('B', child.getColor());
+			if(child.getMax().isAfter(max)) max = child.getMax();
+			LocalDate childDayMax = child.getDayMax(day);
+			if(childDayMax != null && childDayMax.isAfter(dayMax)) dayMax = childDayMax;
+		}
+		if(node.getLeft() != null)
+			assertTrue(PackedInterval.begin(node.getLeft().getValue().getPacked()) <= PackedInterval.begin(node.getValue().getPacked()));
+		if(node.getRight() != null)
+			assertTrue(PackedInterval.begin(node.getRight().getValue().getPacked()) >= PackedInterval.begin(node.getValue().getPacked()));
+		assertEquals(max, node.getMax());
+		assertEquals(dayMax, node.getDayMax(day));
+		int dayMask = 1 << (day.getValue() - 1);
+		if(node.getLeft() != null) dayMask |= node.getLeft().getDayMask();
+		if(node.getRight() != null) dayMask |= node.getRight().getDayMask();
+		assertEquals(dayMask, node.getDayMask());
+		long meetingCount = node.getValue().getMeetingCount();
+		if(node.getLeft() != null) meetingCount += node.getLeft().getMeetingCount();
+		if(node.getRight() != null) meetingCount += node.getRight().getMeetingCount();
+		assertEquals(meetingCount, node.getMeetingCount());
+		long dayCount = 0;
+		for(DayOfWeek d : DayOfWeek.values()) dayCount += node.getMeetingCount(d);
+		assertEquals(meetingCount, dayCount);
+		
+		int left = checkNode(node.getLeft());
+		int right = checkNode(node.getRight());
+		assertEquals(left, right);
+		return left + (node.getColor() == 'B' ? 1 : 0);
+	}
+	
 	List<MeetingInterval> getTestMeetings1() {
 		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
 		MeetingInterval []meetingIntervals = {
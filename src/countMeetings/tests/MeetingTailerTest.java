@@ -0,0 +1,116 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.helpers.MeetingTailer;
+
+/**
+ * Test class for {@link countMeetings.helpers.MeetingTailer}
+ *
+ * @author Alex Lay
+ */
+class MeetingTailerTest {
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingTailer#poll()}.
+	 * Only complete rows should be read, and later vacations should apply to earlier meetings.
+	 */
+	@Test
+	void testPoll() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		Files.writeString(csvPath, "2018-02-10,2018-03-16,Friday\n2018-02-13,2018-02");
+
+		MeetingTailer tailer = new MeetingTailer(csvPath.toString());
+		// Fridays from 2018-02-16 to 2018-03-16
+		assertEquals(5, tailer.poll());
+		assertEquals(29, tailer.getOffset());
+		assertEquals(5, tailer.poll());
+
+		// finish the partial row
+		append(csvPath, "-14,Wednesday\n");
+		assertEquals(6, tailer.poll());
+
+		append(csvPath, "2018-02-01,2018-02-28,Vacation\n");
+		assertEquals(3, tailer.poll());
+
+		// a new meeting should be split on the vacation that was already read
+		append(csvPath, "2018-02-05,2018-03-12,Monday\n");
+		assertEquals(5, tailer.poll());
+
+		// the file was replaced with a shorter one
+		Files.writeString(csvPath, "2018-02-10,2018-03-16,Friday\n");
+		assertEquals(5, tailer.poll());
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingTailer#watch(countMeetings.helpers.MeetingTailer.CountListener)}.
+	 */
+	@Test
+	void testWatch() throws Exception {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		Files.writeString(csvPath, "2018-02-10,2018-03-16,Friday\n");
+
+		MeetingTailer tailer = new MeetingTailer(csvPath.toString());
+		BlockingQueue<Integer> counts = new LinkedBlockingQueue<Integer>();
+		Thread watcher = new Thread(() -> {
+			try {
+				tailer.watch(counts::add);
+			}
+			catch(IOException | InterruptedException e) {
+				e.printStackTrace();
+			}
+		});
+		watcher.start();
+		try {
+			assertEquals(5, counts.poll(10, TimeUnit.SECONDS));
+			append(csvPath, "2018-02-13,2018-02-14,Wednesday\n");
+			assertEquals(6, counts.poll(30, TimeUnit.SECONDS));
+		}
+		finally {
+			tailer.stop();
+			watcher.join(5000);
+		}
+		assertFalse(watcher.isAlive());
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.MeetingTailer#getRejectedRows()}.
+	 * Malformed rows should be skipped, counted and handed to the reject handler
+	 */
+	@Test
+	void testRejectedRows() throws IOException {
+		Path csvPath = tempDir.resolve("meetings.csv");
+		Files.writeString(csvPath, "2018-02-10,2018-03-16,Friday\nnot a row\n");
+
+		MeetingTailer tailer = new MeetingTailer(csvPath.toString());
+		List<Long> rejectedRows = new ArrayList<Long>();
+		tailer.setRejectHandler((row, buffer, from, to, reason) -> rejectedRows.add(row));
+		assertEquals(5, tailer.poll());
+		assertEquals(1, tailer.getRejectedRows());
+
+		append(csvPath, "2018-02-13,2018-02-14,Someday\n2018-02-13,2018-02-14,Wednesday\n");
+		assertEquals(6, tailer.poll());
+		assertEquals(2, tailer.getRejectedRows());
+		assertEquals(List.of(2L, 3L), rejectedRows);
+	}
+
+	private void append(Path path, String text) throws IOException {
+		Files.writeString(path, text, StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,111 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.PackedInterval;
+
+/**
+ * Test class for {@link countMeetings.helpers.PackedInterval}
+ *
+ * @author Alex Lay
+ */
+class PackedIntervalTest {
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PackedInterval#pack(long, long, int)}.
+	 * Fields should come back out unchanged and packed intervals should sort by beginDate.
+	 */
+	@Test
+	void testPack() {
+		long meeting = PackedInterval.pack(LocalDate.of(1969, 12, 25), LocalDate.of(2018, 3, 16), DayOfWeek.FRIDAY);
+		assertEquals(LocalDate.of(1969, 12, 25).toEpochDay(), PackedInterval.begin(meeting));
+		assertEquals(LocalDate.of(2018, 3, 16).toEpochDay(), PackedInterval.end(meeting));
+		assertEquals(5, PackedInterval.day(meeting));
+		assertFalse(PackedInterval.isVacation(meeting));
+
+		long vacation = PackedInterval.pack(LocalDate.of(1970, 1, 1), LocalDate.of(1970, 1, 1), null);
+		assertTrue(PackedInterval.isVacation(vacation));
+		assertTrue(meeting < vacation);
+
+		MeetingInterval unpacked = PackedInterval.unpack(meeting);
+		assertTrue(unpacked.equals(new MeetingInterval("1969-12-25", "2018-03-16", "Friday")));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PackedInterval#countMeetings(long)}.
+	 * Should match counting the days one at a time.
+	 */
+	@Test
+	void testCountMeetings() {
+		LocalDate first = LocalDate.of(1969, 12, 20);
+		for(int length = 0; length < 30; length++) {
+			for(int offset = 0; offset < 14; offset++) {
+				LocalDate begin = first.plusDays(offset);
+				LocalDate end = begin.plusDays(length);
+				for(DayOfWeek day : DayOfWeek.values()) {
+					int expected = 0;
+					for(LocalDate date = begin; !date.isAfter(end); date = date.plusDays(1)) {
+						if(date.getDayOfWeek() == day) expected++;
+					}
+					assertEquals(expected, PackedInterval.countMeetings(PackedInterval.pack(begin, end, day)));
+				}
+			}
+		}
+		assertEquals(0, PackedInterval.countMeetings(PackedInterval.pack(first, first.plusDays(30), null)));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PackedInterval#overlaps(long, long)}.
+	 */
+	@Test
+	void testOverlaps() {
+		long friday = new MeetingInterval("2018-02-10", "2018-03-16", "Friday").getPacked();
+		long otherFriday = new MeetingInterval("2018-03-16", "2018-04-16", "Friday").getPacked();
+		long monday = new MeetingInterval("2018-02-10", "2018-03-16", "Monday").getPacked();
+		long vacation = new MeetingInterval("2018-01-01", "2018-02-10").getPacked();
+		long laterVacation = new MeetingInterval("2018-03-17", "2018-04-10").getPacked();
+
+		assertTrue(PackedInterval.overlaps(friday, otherFriday));
+		assertFalse(PackedInterval.overlaps(friday, monday));
+		assertTrue(PackedInterval.overlaps(friday, vacation));
+		assertTrue(PackedInterval.overlaps(vacation, monday));
+		assertFalse(PackedInterval.overlaps(friday, laterVacation));
+		assertTrue(PackedInterval.overlaps(otherFriday, laterVacation));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PackedInterval#merge(long, long)}
+	 *   and {@link countMeetings.helpers.PackedInterval#split(long, long, long[])}.
+	 * Should give the same intervals as MeetingInterval.merge and MeetingInterval.split.
+	 */
+	@Test
+	void testMergeAndSplit() {
+		MeetingInterval meeting = new MeetingInterval("2018-01-02", "2018-01-30", "Tuesday");
+		MeetingInterval other = new MeetingInterval("2018-01-01", "2018-01-09", "Tuesday");
+		assertEquals(meeting.merge(other).getPacked(), PackedInterval.merge(meeting.getPacked(), other.getPacked()));
+
+		String[][] vacations = {
+			{ "2018-01-01", "2018-01-31" }, // covers all of it
+			{ "2018-01-01", "2018-01-10" }, // covers the beginning
+			{ "2018-01-20", "2018-02-10" }, // covers the end
+			{ "2018-01-10", "2018-01-20" }, // splits it in half
+		};
+		long[] out = new long[2];
+		for(String[] dates : vacations) {
+			MeetingInterval vacation = new MeetingInterval(dates[0], dates[1]);
+			List<MeetingInterval> expected = meeting.split(vacation);
+			int pieces = PackedInterval.split(meeting.getPacked(), vacation.getPacked(), out);
+			assertEquals(expected.size(), pieces);
+			for(int x = 0; x < pieces; x++) {
+				assertEquals(expected.get(x).getPacked(), out[x]);
+			}
+		}
+	}
+}
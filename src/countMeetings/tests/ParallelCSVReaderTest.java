@@ -0,0 +1,116 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.helpers.CSVReader;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.ParallelCSVReader;
+
+/**
+ * Test class for {@link countMeetings.helpers.ParallelCSVReader}
+ * 
+ * @author Alex Lay
+ */
+class ParallelCSVReaderTest {
+	
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Test method for {@link countMeetings.helpers.ParallelCSVReader#readMeetingsFull(java.lang.String)}.
+	 * The file is big enough to be split into several chunks
+	 */
+	@Test
+	void testReadMeetingsFull() throws IOException {
+		String csvPath = writeBigFile();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ParallelCSVReader parallelReader = new ParallelCSVReader(pool);
+		CSVReader csvReader = new CSVReader();
+		
+		List[] expected = csvReader.readMeetingsFullMapped(csvPath);
+		List[] actual = parallelReader.readMeetingsFull(csvPath);
+		assertSameIntervals(expected[0], actual[0]);
+		assertSameIntervals(expected[1], actual[1]);
+		pool.shutdown();
+	}
+	
+	/**
+	 * Test method for {@link countMeetings.helpers.ParallelCSVReader#countMeetingsBasic(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsBasic() throws IOException {
+		String csvPath = tempDir.resolve("basic.csv").toString();
+		try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tempDir.resolve("basic.csv")))) {
+			for(int x = 0; x < 100000; x++) {
+				writer.print("2018-05-02,2018-12-31,Wednesday\n");
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ParallelCSVReader parallelReader = new ParallelCSVReader(pool);
+		assertEquals(35L * 100000, parallelReader.countMeetingsBasic(csvPath));
+		pool.shutdown();
+	}
+	
+	/**
+	 * A bad row far into the file should be reported with its row number in the
+	 *   file, not in the chunk it was in
+	 */
+	@Test
+	void testErrorRowNumbers() throws IOException {
+		Path path = tempDir.resolve("bad.csv");
+		try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+			for(int x = 1; x <= 100000; x++) {
+				if(x == 90001) writer.print("2018-05-02,2018-12-31,Bogus\n");
+				else if(x == 80001) writer.print("2018-05-02,2018-12-31,Vacation\n");
+				else writer.print("2018-05-02,2018-12-31,Wednesday\n");
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ParallelCSVReader parallelReader = new ParallelCSVReader(pool);
+		PrintStream err = System.err;
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		System.setErr(new PrintStream(errors, true));
+		try {
+			parallelReader.readMeetingsFull(path.toString());
+			assertTrue(errors.toString().contains("on row 90001"));
+			errors.reset();
+			assertEquals(-1, parallelReader.countMeetingsBasic(path.toString()));
+			assertTrue(errors.toString().contains("on row 80001."));
+		}
+		finally {
+			System.setErr(err);
+			pool.shutdown();
+		}
+	}
+	
+	String writeBigFile() throws IOException {
+		String days[] = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday", "Vacation"};
+		Path path = tempDir.resolve("big.csv");
+		try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+			writer.print("\uFEFF");
+			for(int x = 0; x < 200000; x++) {
+				writer.print("2018-0" + (x % 9 + 1) + "-1" + (x % 10) + ",2019-01-0" + (x % 9 + 1) + "," + days[x % days.length] + "\r\n");
+			}
+		}
+		return path.toString();
+	}
+	
+	void assertSameIntervals(List<MeetingInterval> expected, List<MeetingInterval> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int x = 0; x < expected.size(); x++) {
+			assertTrue(expected.get(x).equals(actual.get(x)));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.PersistentMeetingIntervalTree;
+
+/**
+ * Test class for {@link countMeetings.helpers.PersistentMeetingIntervalTree}
+ *
+ * @author Alex Lay
+ */
+class PersistentMeetingIntervalTreeTest {
+
+	/**
+	 * Should be usable as the backend of CountMeetingsFull
+	 */
+	@Test
+	void testCountMeetingsFull() {
+		MeetingIndexOracle.assertCountMeetingsFull(PersistentMeetingIntervalTree::new);
+	}
+
+	/**
+	 * Should leave the same intervals and counts as a MeetingIntervalTree (see
+	 *   MeetingIndexOracle.assertMatchesTree)
+	 */
+	@Test
+	void testMatchesTree() {
+		MeetingIndexOracle.assertMatchesTree(31, PersistentMeetingIntervalTree::new, PersistentMeetingIntervalTree::toList);
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PersistentMeetingIntervalTree#snapshot()}.
+	 * A snapshot shouldn't see updates made after it, and updating it shouldn't
+	 *   change the tree it came from
+	 */
+	@Test
+	void testSnapshot() {
+		PersistentMeetingIntervalTree tree = new PersistentMeetingIntervalTree();
+		for(int x = 0; x < 100; x++) {
+			tree.insert(new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 6), DayOfWeek.MONDAY));
+		}
+		PersistentMeetingIntervalTree snapshot = tree.snapshot();
+		List<MeetingInterval> before = tree.toList();
+
+		tree.removeVacation(new MeetingInterval(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(349), null));
+		tree.insert(new MeetingInterval(LocalDate.ofEpochDay(700), LocalDate.ofEpochDay(706), DayOfWeek.FRIDAY));
+		assertEquals(51, tree.countMeetings());
+		assertEquals(100, snapshot.countMeetings());
+		assertEquals(MeetingIndexOracle.packed(before), MeetingIndexOracle.packed(snapshot.toList()));
+		assertNotNull(snapshot.findOverlap(new MeetingInterval(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(6), DayOfWeek.MONDAY)));
+		assertNull(tree.findOverlap(new MeetingInterval(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(6), DayOfWeek.MONDAY)));
+
+		snapshot.insert(new MeetingInterval(LocalDate.ofEpochDay(800), LocalDate.ofEpochDay(806), DayOfWeek.TUESDAY));
+		assertEquals(101, snapshot.countMeetings());
+		assertEquals(51, tree.countMeetings());
+	}
+
+	/**
+	 * A reader taking snapshots while another thread inserts should always see a
+	 *   whole version (the count of every snapshot agrees with its intervals)
+	 */
+	@Test
+	void testConcurrentSnapshots() throws InterruptedException {
+		PersistentMeetingIntervalTree tree = new PersistentMeetingIntervalTree();
+		AtomicReference<String> problem = new AtomicReference<String>();
+		Thread writer = new Thread(() -> {
+			for(int x = 0; x < 3000; x++) {
+				tree.insert(new MeetingInterval(LocalDate.ofEpochDay(7 * x), LocalDate.ofEpochDay(7 * x + 13),
+						DayOfWeek.of(1 + x % 7)));
+			}
+		});
+		writer.start();
+		while(writer.isAlive()) {
+			PersistentMeetingIntervalTree snapshot = tree.snapshot();
+			long count = 0;
+			for(MeetingInterval m : snapshot.toList()) count += m.getMeetingCount();
+			if(count != snapshot.countMeetings()) problem.set(count + " != " + snapshot.countMeetings());
+		}
+		writer.join();
+		assertNull(problem.get());
+	}
+}
@@ -0,0 +1,121 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PipelinedIngest;
+
+/**
+ * Test class for {@link countMeetings.helpers.PipelinedIngest}
+ *
+ * @author Alex Lay
+ */
+class PipelinedIngestTest {
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Test method for {@link countMeetings.CountMeetingsFull#countMeetingsPipelined(java.lang.String)}.
+	 */
+	@Test
+	void testCountMeetingsPipelined() {
+		CountMeetingsFull countMeetingsFull = new CountMeetingsFull();
+		assertEquals(2, countMeetingsFull.countMeetingsPipelined("src/countMeetings/csv-files/regularTest.csv"));
+		assertEquals(87, countMeetingsFull.countMeetingsPipelined("src/countMeetings/csv-files/superSimpleTest.csv"));
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.PipelinedIngest#ingestFull(countMeetings.helpers.MeetingIndex)}.
+	 * Small batches and queues mean lots of batches and a lot of waiting on the
+	 *   queues, and the count should still be the same as CountMeetingsFull's
+	 */
+	@Test
+	void testIngestFull() throws IOException {
+		String csvPath = writeBigFile(tempDir.resolve("big.csv"), false);
+		int expected = new CountMeetingsFull().countMeetings(csvPath);
+		for(int parsers = 1; parsers <= 4; parsers++) {
+			PipelinedIngest ingest = new PipelinedIngest(csvPath, parsers, 4096);
+			MeetingIntervalTree tree = new MeetingIntervalTree();
+			List<MeetingInterval> vacations = ingest.ingestFull(tree);
+			assertEquals(20000, vacations.size());
+			tree.removeVacations(vacations);
+			assertEquals(expected, tree.countMeetings());
+
+			assertEquals(Files.size(tempDir.resolve("big.csv")) - 3, ingest.getReaderMetrics().getBytes());
+			assertEquals(ingest.getReaderMetrics().getBytes(), ingest.getParserMetrics().getBytes());
+			assertEquals(ingest.getReaderMetrics().getBatches(), ingest.getParserMetrics().getBatches());
+			assertEquals(ingest.getParserMetrics().getBatches(), ingest.getBuilderMetrics().getBatches());
+			assertEquals(160000, ingest.getParserMetrics().getRows());
+			assertEquals(160000, ingest.getBuilderMetrics().getRows());
+			assertTrue(ingest.getReaderMetrics().getBatches() > 100);
+			assertTrue(ingest.getParserMetrics().getRowsPerSecond() > 0);
+			assertEquals(3, ingest.getMetricsReport().split("\n").length);
+		}
+	}
+
+	/**
+	 * Gzipped files and a row bigger than a batch
+	 */
+	@Test
+	void testGzipAndSmallBatches() throws IOException {
+		String csvPath = writeBigFile(tempDir.resolve("big.csv"), false);
+		String gzipPath = writeBigFile(tempDir.resolve("big.csv.gz"), true);
+		int expected = new CountMeetingsFull().countMeetings(csvPath);
+
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		tree.removeVacations(new PipelinedIngest(gzipPath, 2, 1 << 16).ingestFull(tree));
+		assertEquals(expected, tree.countMeetings());
+
+		tree = new MeetingIntervalTree();
+		tree.removeVacations(new PipelinedIngest(csvPath, 2, 10).ingestFull(tree));
+		assertEquals(expected, tree.countMeetings());
+	}
+
+	/**
+	 * A malformed row should stop the ingest with an IOException instead of hanging,
+	 *   and the error should have the row's number in the file (not in its batch)
+	 */
+	@Test
+	void testMalformedRow() throws IOException {
+		Path path = tempDir.resolve("bad.csv");
+		try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+			for(int x = 0; x < 50000; x++) {
+				writer.print(x == 30000 ? "2018-01-01,Monday\n" : "2018-01-01,2018-02-01,Monday\n");
+			}
+		}
+		PipelinedIngest ingest = new PipelinedIngest(path.toString(), 3, 1024);
+		IOException e = assertThrows(IOException.class, () -> ingest.ingestFull(new MeetingIntervalTree()));
+		assertEquals("Invalid input file format on row 30001.", e.getMessage());
+		assertThrows(IOException.class, () -> new PipelinedIngest(tempDir.resolve("missing.csv").toString()).ingestFull(new MeetingIntervalTree()));
+		assertEquals(-1, new CountMeetingsFull().countMeetingsPipelined(path.toString()));
+	}
+
+	String writeBigFile(Path path, boolean isCompressed) throws IOException {
+		String days[] = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday", "Vacation"};
+		try(PrintWriter writer = new PrintWriter(isCompressed
+				? new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(path)), StandardCharsets.UTF_8)
+				: Files.newBufferedWriter(path))) {
+			writer.print("\uFEFF");
+			for(int x = 0; x < 160000; x++) {
+				writer.print("2018-0" + (x % 9 + 1) + "-1" + (x % 10) + ",2019-0" + (x % 7 + 1) + "-0" + (x % 9 + 1) + ","
+						+ days[x % days.length] + "\r\n");
+			}
+		}
+		return path.toString();
+	}
+}
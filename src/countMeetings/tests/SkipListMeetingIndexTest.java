@@ -0,0 +1,131 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.SkipListMeetingIndex;
+
+/**
+ * Test class for {@link countMeetings.helpers.SkipListMeetingIndex}
+ *
+ * @author Alex Lay
+ */
+class SkipListMeetingIndexTest {
+
+	/**
+	 * Should be usable as the backend of CountMeetingsFull
+	 */
+	@Test
+	void testCountMeetingsFull() {
+		MeetingIndexOracle.assertCountMeetingsFull(SkipListMeetingIndex::new);
+	}
+
+	/**
+	 * Meetings and vacations from one thread should leave the same intervals and
+	 *   counts as a MeetingIntervalTree (see MeetingIndexOracle.assertMatchesTree)
+	 */
+	@Test
+	void testMatchesTree() {
+		MeetingIndexOracle.assertMatchesTree(53, SkipListMeetingIndex::new, SkipListMeetingIndex::toList);
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.SkipListMeetingIndex#insert(MeetingInterval)}.
+	 * Several threads inserting overlapping meetings at once should end up with
+	 *   the same merged intervals as inserting them all from one thread. Some of
+	 *   the meetings are long and cover lots of short ones, so an insert often
+	 *   has a short interval between it and a long one it overlaps (see the
+	 *   class Javadoc for why it still finds it)
+	 */
+	@Test
+	void testConcurrentInserts() throws InterruptedException {
+		Random random = new Random(59);
+		for(int trial = 0; trial < 5; trial++) {
+			List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+			for(int x = 0; x < 20000; x++) {
+				long begin = random.nextInt(trial % 2 == 0 ? 20000 : 200000);
+				meetings.add(new MeetingInterval(LocalDate.ofEpochDay(begin),
+						LocalDate.ofEpochDay(begin + (x % 20 == 0 ? random.nextInt(2000) : random.nextInt(40))),
+						DayOfWeek.of(1 + random.nextInt(3))));
+			}
+			MeetingIntervalTree tree = new MeetingIntervalTree();
+			tree.insertList(meetings);
+
+			SkipListMeetingIndex index = new SkipListMeetingIndex();
+			AtomicReference<Throwable> problem = new AtomicReference<Throwable>();
+			List<Thread> writers = new ArrayList<Thread>();
+			int threads = 8;
+			for(int t = 0; t < threads; t++) {
+				List<MeetingInterval> share = meetings.subList(t * meetings.size() / threads, (t + 1) * meetings.size() / threads);
+				Thread writer = new Thread(() -> {
+					try {
+						for(MeetingInterval m : share) index.insert(m);
+					}
+					catch(Throwable e) {
+						problem.set(e);
+					}
+				});
+				writer.start();
+				writers.add(writer);
+			}
+			for(Thread writer : writers) writer.join();
+			assertNull(problem.get());
+
+			assertEquals(tree.countMeetings(), index.countMeetings());
+			assertEquals(MeetingIndexOracle.packed(tree.toList()), MeetingIndexOracle.packed(index.toList()));
+		}
+	}
+
+	/**
+	 * Test method for {@link countMeetings.helpers.SkipListMeetingIndex#removeVacations(List)}.
+	 * Vacations removed while other threads are inserting should wait for the
+	 *   inserts that are running, so the intervals left are still disjoint and
+	 *   the count still matches them
+	 */
+	@Test
+	void testVacationsDuringInserts() throws InterruptedException {
+		Random random = new Random(61);
+		SkipListMeetingIndex index = new SkipListMeetingIndex();
+		AtomicReference<Throwable> problem = new AtomicReference<Throwable>();
+		List<Thread> writers = new ArrayList<Thread>();
+		for(int t = 0; t < 4; t++) {
+			long seed = random.nextLong();
+			Thread writer = new Thread(() -> {
+				try {
+					Random writerRandom = new Random(seed);
+					for(int x = 0; x < 5000; x++) {
+						long begin = writerRandom.nextInt(50000);
+						index.insert(new MeetingInterval(LocalDate.ofEpochDay(begin),
+								LocalDate.ofEpochDay(begin + writerRandom.nextInt(100)), DayOfWeek.of(1 + writerRandom.nextInt(7))));
+					}
+				}
+				catch(Throwable e) {
+					problem.set(e);
+				}
+			});
+			writer.start();
+			writers.add(writer);
+		}
+		for(int x = 0; x < 200; x++) {
+			long begin = random.nextInt(50000);
+			index.removeVacation(new MeetingInterval(LocalDate.ofEpochDay(begin), LocalDate.ofEpochDay(begin + random.nextInt(50)), null));
+		}
+		for(Thread writer : writers) writer.join();
+		assertNull(problem.get());
+
+		MeetingIntervalTree tree = new MeetingIntervalTree();
+		tree.insertList(index.toList());
+		assertEquals(MeetingIndexOracle.packed(tree.toList()), MeetingIndexOracle.packed(index.toList()));
+		assertEquals(tree.countMeetings(), index.countMeetings());
+	}
+}
@@ -0,0 +1,89 @@
+package countMeetings.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import countMeetings.CountMeetingsFull;
+import countMeetings.helpers.MeetingIndex;
+import countMeetings.helpers.MeetingInterval;
+import countMeetings.helpers.MeetingIntervalTree;
+import countMeetings.helpers.PackedInterval;
+import countMeetings.helpers.WeekdayPartitionedIndex;
+
+/**
+ * Test class for {@link countMeetings.helpers.WeekdayPartitionedIndex}
+ *
+ * @author Alex Lay
+ */
+class WeekdayPartitionedIndexTest {
+
+	/**
+	 * Should be usable as the backend of CountMeetingsFull
+	 */
+	@Test
+	void testCountMeetingsFull() {
+		CountMeetingsFull countMeetingsFull = new CountMeetingsFull(WeekdayPartitionedIndex::new);
+		assertEquals(2, countMeetingsFull.countMeetings("src/countMeetings/csv-files/regularTest.csv"));
+		assertEquals(87, countMeetingsFull.countMeetings("src/countMeetings/csv-files/superSimpleTest.csv"));
+	}
+
+	/**
+	 * Random meetings and vacations should give the same count and the same
+	 *   haveMeeting and date range answers as a MeetingIntervalTree and as marking
+	 *   every meeting day in a set, on one thread and on a pool
+	 */
+	@Test
+	void testMatchesTree() {
+		Random random = new Random(5);
+		List<MeetingInterval> meetings = new ArrayList<MeetingInterval>();
+		List<MeetingInterval> vacations = new ArrayList<MeetingInterval>();
+		Set<Long> meetingDays = new HashSet<Long>();
+		for(int x = 0; x < 20000; x++) {
+			long begin = 17500 + random.nextInt(3000);
+			MeetingInterval meeting = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(60)), DayOfWeek.of(1 + random.nextInt(7)));
+			meetings.add(meeting);
+			for(LocalDate date = meeting.getBeginDate(); !date.isAfter(meeting.getEndDate()); date = date.plusDays(1)) {
+				if(date.getDayOfWeek() == meeting.getDayOfTheWeek()) meetingDays.add(date.toEpochDay());
+			}
+		}
+		for(int x = 0; x < 50; x++) {
+			long begin = 17500 + random.nextInt(3000);
+			MeetingInterval vacation = new MeetingInterval(LocalDate.ofEpochDay(begin),
+					LocalDate.ofEpochDay(begin + random.nextInt(20)), null);
+			vacations.add(vacation);
+			meetingDays.removeIf(day -> day >= vacation.getBeginDate().toEpochDay() && day <= vacation.getEndDate().toEpochDay());
+		}
+
+		MeetingIndex[] indexes = {
+			new MeetingIntervalTree(),
+			new WeekdayPartitionedIndex(),
+			new WeekdayPartitionedIndex(new ForkJoinPool(4)),
+		};
+		for(MeetingIndex index : indexes) {
+			index.insertList(meetings);
+			index.removeVacations(vacations);
+			assertEquals(meetingDays.size(), index.countMeetings());
+			for(long day = 17490; day < 20600; day++) {
+				assertEquals(meetingDays.contains(day), index.haveMeeting(LocalDate.ofEpochDay(day)));
+			}
+			for(long x = 17400; x < 20600; x += 97) {
+				long from = x, to = x + 200;
+				long expected = meetingDays.stream().filter(day -> day >= from && day <= to).count();
+				assertEquals(expected, index.countMeetings(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to)));
+				long expectedMonday = meetingDays.stream().filter(day -> day >= from && day <= to && PackedInterval.dayOfWeek(day) == 1).count();
+				assertEquals(expectedMonday, index.countMeetings(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to), DayOfWeek.MONDAY));
+			}
+		}
+	}
+}